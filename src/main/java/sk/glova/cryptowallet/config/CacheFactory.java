@@ -0,0 +1,44 @@
+package sk.glova.cryptowallet.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates caches configured in {@link CacheSpecs} and registers them in the cache manager, so that they are listed with their statistics by
+ * the cache endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheFactory {
+
+    private final CacheSpecs cacheSpecs;
+    private final CaffeineCacheManager cacheManager;
+
+    public <K, V> Cache<K, V> create(String name) {
+        final Cache<K, V> cache = cacheSpecs.builder(name).build();
+        register(name, cache);
+        return cache;
+    }
+
+    /**
+     * @param loader loads missing entries and refreshes entries older than refresh-after-write in the background
+     */
+    public <K, V> LoadingCache<K, V> create(String name, CacheLoader<K, V> loader) {
+        final LoadingCache<K, V> cache = cacheSpecs.builder(name).build(loader);
+        register(name, cache);
+        return cache;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void register(String name, Cache<?, ?> cache) {
+        if (cacheManager.getCacheNames().contains(name)) {
+            throw new IllegalStateException("Cache [" + name + "] is already created.");
+        }
+        cacheManager.registerCustomCache(name, (Cache<Object, Object>) cache);
+    }
+
+}
@@ -0,0 +1,61 @@
+package sk.glova.cryptowallet.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size bound and expiry of every cache, configured under `caches.specs.<name>` in application.yaml.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "caches")
+public class CacheSpecs {
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * @return builder of the cache with given name, statistics are always recorded
+     * @throws IllegalStateException when the cache is not configured
+     */
+    public Caffeine<Object, Object> builder(String name) {
+        final Spec spec = specs.get(name);
+        if (spec == null) {
+            throw new IllegalStateException("Cache [" + name + "] is not configured in caches.specs.");
+        }
+
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(spec.getMaximumSize())
+            .recordStats();
+
+        if (spec.getExpireAfterWrite() > 0) {
+            builder.expireAfterWrite(Duration.ofMillis(spec.getExpireAfterWrite()));
+        }
+        if (spec.getRefreshAfterWrite() > 0) {
+            builder.refreshAfterWrite(Duration.ofMillis(spec.getRefreshAfterWrite()));
+        }
+        return builder;
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        // maximal number of entries, the least valuable entries are evicted beyond it
+        private long maximumSize;
+
+        // ms, 0 = entries do not expire
+        private long expireAfterWrite;
+
+        // ms, 0 = entries are not refreshed, requires a cache with loader
+        private long refreshAfterWrite;
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package sk.glova.cryptowallet.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint (/actuator/cachestats) with size and hit/miss statistics of all caches since the application start.
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+
+    private final CaffeineCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, Object> cacheStats() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            final Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+            final CacheStats stats = cache.stats();
+
+            final Map<String, Object> details = new LinkedHashMap<>();
+            details.put("size", cache.estimatedSize());
+            details.put("hits", stats.hitCount());
+            details.put("misses", stats.missCount());
+            details.put("hitRate", stats.hitRate());
+            details.put("evictions", stats.evictionCount());
+            details.put("loads", stats.loadCount());
+            details.put("loadFailures", stats.loadFailureCount());
+            details.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000);
+            result.put(name, details);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,38 @@
+package sk.glova.cryptowallet.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
+
+/**
+ * Actuator endpoint (/actuator/circuitbreakers) with the current state and the latest state transitions of all circuit breakers.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+@RequiredArgsConstructor
+public class CircuitBreakerEndpoint {
+
+    private final List<CircuitBreaker> circuitBreakers;
+
+    @ReadOperation
+    public Map<String, Object> circuitBreakers() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            final Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", circuitBreaker.getState());
+            details.put("transitions", circuitBreaker.getTransitions()
+                .stream()
+                .map(transition -> transition.getAt() + " " + transition.getFrom() + " -> " + transition.getTo())
+                .collect(Collectors.toList()));
+            result.put(circuitBreaker.getName(), details);
+        }
+        return result;
+    }
+
+}
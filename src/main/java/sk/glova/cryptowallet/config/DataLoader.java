@@ -1,40 +1,137 @@
 package sk.glova.cryptowallet.config;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import sk.glova.cryptowallet.dao.CurrencyRepository;
 import sk.glova.cryptowallet.domain.model.SupportedCurrency;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataLoader implements ApplicationRunner {
 
+    private static final String HEADER = "code,crypto";
+    private static final String SYNTHETIC_PREFIX = "SYN";
+
     private final CurrencyRepository currencyRepository;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${currencies.catalog}")
+    private String catalogLocation;
+
+    @Value("${currencies.synthetic-cryptos}")
+    private int syntheticCryptos;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Creates supported currencies and crypto-currencies in DB, inserts are sent in JDBC batches within one transaction
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) throws IOException {
+        final long start = System.nanoTime();
+
+        final List<SupportedCurrency> catalog = readCatalog(resourceLoader.getResource(catalogLocation));
+        for (int i = 1; i <= syntheticCryptos; i++) {
+            catalog.add(SupportedCurrency.builder().code(SYNTHETIC_PREFIX + i).isCryptoCurrency(true).build());
+        }
+
+        // only missing currencies are inserted, so the catalog can be loaded repeatedly into persistent DB
+        final Set<String> existing = currencyRepository.findAllCodes();
+        final List<SupportedCurrency> missing = new ArrayList<>();
+        for (SupportedCurrency currency : catalog) {
+            if (existing.add(currency.getCode())) {
+                missing.add(currency);
+            }
+        }
+
+        // persistence context is flushed and cleared after every JDBC batch, so it does not grow with the catalog
+        for (int i = 0; i < missing.size(); i++) {
+            entityManager.persist(missing.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        log.info("Seeded {} of {} supported currencies from {} in {} ms", missing.size(), catalog.size(), catalogLocation,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads CSV with `code,crypto` header, empty lines and lines starting with # are ignored. Codes are upper-cased and must consist of 2 to 10
+     * letters or digits, crypto flag must be `true` or `false`. A code listed again with the same flag is skipped, with the other flag rejected.
+     *
+     * @throws IllegalStateException with the line number of the first invalid line
+     */
+    private static List<SupportedCurrency> readCatalog(Resource resource) throws IOException {
+        final Map<String, SupportedCurrency> catalog = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.equalsIgnoreCase(HEADER)) {
+                    continue;
+                }
+
+                final String[] columns = line.split(",", -1);
+                if (columns.length != 2) {
+                    throw invalidLine(resource, lineNumber, line, "expected 2 columns");
+                }
+
+                final String code = columns[0].trim().toUpperCase();
+                if (!SupportedCurrency.CODE_PATTERN.matcher(code).matches()) {
+                    throw invalidLine(resource, lineNumber, line, "code must consist of 2 to 10 letters or digits");
+                }
+
+                // Boolean.parseBoolean would silently read any typo as fiat
+                final String crypto = columns[1].trim().toLowerCase();
+                if (!crypto.equals("true") && !crypto.equals("false")) {
+                    throw invalidLine(resource, lineNumber, line, "crypto must be true or false");
+                }
+
+                final SupportedCurrency currency = SupportedCurrency.builder().code(code).isCryptoCurrency(Boolean.parseBoolean(crypto)).build();
+                final SupportedCurrency duplicate = catalog.putIfAbsent(code, currency);
+                if (duplicate != null) {
+                    if (duplicate.isCryptoCurrency() != currency.isCryptoCurrency()) {
+                        throw invalidLine(resource, lineNumber, line, "currency is already listed with the other crypto flag");
+                    }
+                    log.warn("Currency {} is listed more than once in {}, line {} is skipped", code, resource, lineNumber);
+                }
+            }
+        }
+
+        return new ArrayList<>(catalog.values());
+    }
 
-    // Creates supported currencies and crypto-currencies in DB
-    public void run(ApplicationArguments args) {
-        currencyRepository.save(SupportedCurrency.builder().code("BTC").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("ETH").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("LTC").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("ADA").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("DOT").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("BCH").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("XLM").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("BNB").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("USDT").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("XMR").isCryptoCurrency(true).build());
-        currencyRepository.save(SupportedCurrency.builder().code("USD").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("EUR").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("AUD").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("CZK").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("JPY").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("RUB").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("CNY").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("HRK").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("PLN").isCryptoCurrency(false).build());
-        currencyRepository.save(SupportedCurrency.builder().code("CHF").isCryptoCurrency(false).build());
+    private static IllegalStateException invalidLine(Resource resource, int lineNumber, String line, String reason) {
+        return new IllegalStateException("Invalid currency at line " + lineNumber + " of " + resource + " (" + reason + "): " + line);
     }
 
 }
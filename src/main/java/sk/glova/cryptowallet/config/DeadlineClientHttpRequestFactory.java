@@ -0,0 +1,160 @@
+package sk.glova.cryptowallet.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Request factory which aborts every request still running after the total timeout. Connect and read timeouts bound single socket operations
+ * only, so a server trickling bytes slowly could otherwise hold the calling thread for much longer. The abort is cancelled as soon as the
+ * response is closed or the execution fails, so finished requests are not kept by the scheduler.
+ */
+class DeadlineClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final long totalTimeout;
+    private final ScheduledThreadPoolExecutor aborter;
+
+    // hands the abort scheduled by createHttpUriRequest over to createRequest, both run on the calling thread
+    private final ThreadLocal<ScheduledFuture<?>> scheduledAbort = new ThreadLocal<>();
+
+    DeadlineClientHttpRequestFactory(HttpClient httpClient, long totalTimeout) {
+        super(httpClient);
+        this.totalTimeout = totalTimeout;
+
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("http-deadline-");
+        threadFactory.setDaemon(true);
+        this.aborter = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.aborter.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        final ClientHttpRequest request;
+        final ScheduledFuture<?> abort;
+        try {
+            request = super.createRequest(uri, httpMethod);
+        } finally {
+            abort = scheduledAbort.get();
+            scheduledAbort.remove();
+        }
+
+        return abort == null ? request : new DeadlineRequest(request, abort);
+    }
+
+    @Override
+    protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        final HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+
+        if (totalTimeout > 0) {
+            scheduledAbort.set(aborter.schedule(request::abort, totalTimeout, TimeUnit.MILLISECONDS));
+        }
+
+        return request;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        aborter.shutdownNow();
+        super.destroy();
+    }
+
+    private static class DeadlineRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+        private final ScheduledFuture<?> abort;
+
+        DeadlineRequest(ClientHttpRequest delegate, ScheduledFuture<?> abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                return new DeadlineResponse(delegate.execute(), abort);
+            } catch (IOException | RuntimeException ex) {
+                abort.cancel(false);
+                throw ex;
+            }
+        }
+
+        @Override
+        public String getMethodValue() {
+            return delegate.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+    }
+
+    private static class DeadlineResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> abort;
+
+        DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        // the body is fully read or discarded by now, the deadline is not needed anymore
+        @Override
+        public void close() {
+            abort.cancel(false);
+            delegate.close();
+        }
+
+    }
+
+}
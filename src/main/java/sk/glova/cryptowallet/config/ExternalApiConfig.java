@@ -1,15 +1,102 @@
 package sk.glova.cryptowallet.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
 
+@Slf4j
 @Configuration
 public class ExternalApiConfig {
 
+    private static final String CLIENT_NAME = "external-api";
+
+    @Bean
+    PoolingHttpClientConnectionManager externalApiConnectionManager(
+        MeterRegistry meterRegistry,
+        @Value("${external.api.http.max-connections}") int maxConnections,
+        @Value("${external.api.http.max-connections-per-route}") int maxConnectionsPerRoute
+    ) {
+        final PoolingHttpClientConnectionManager connectionManager = new TimedConnectionManager(meterRegistry, CLIENT_NAME);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        // exposes leased/available/pending connection gauges
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, CLIENT_NAME).bindTo(meterRegistry);
+
+        return connectionManager;
+    }
+
     @Bean
-    RestTemplate restTemplate() {
-        return new RestTemplate();
+    CloseableHttpClient externalApiHttpClient(
+        PoolingHttpClientConnectionManager externalApiConnectionManager,
+        @Value("${external.api.http.connect-timeout}") int connectTimeout,
+        @Value("${external.api.http.read-timeout}") int readTimeout,
+        @Value("${external.api.http.pool-wait-timeout}") int poolWaitTimeout,
+        @Value("${external.api.http.idle-eviction}") long idleEviction,
+        @Value("${external.api.http.gzip}") boolean gzip
+    ) {
+        final RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setSocketTimeout(readTimeout)
+            .setConnectionRequestTimeout(poolWaitTimeout)
+            .build();
+
+        final HttpClientBuilder builder = HttpClientBuilder.create()
+            .setConnectionManager(externalApiConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS);
+
+        if (!gzip) {
+            builder.disableContentCompression();
+        }
+
+        return builder.build();
+    }
+
+    @Bean
+    RestTemplate restTemplate(
+        CloseableHttpClient externalApiHttpClient,
+        @Value("${external.api.http.total-timeout}") long totalTimeout
+    ) {
+        return new RestTemplate(new DeadlineClientHttpRequestFactory(externalApiHttpClient, totalTimeout));
+    }
+
+    @Bean
+    CircuitBreaker externalApiCircuitBreaker(
+        MeterRegistry meterRegistry,
+        @Value("${external.api.circuit-breaker.failure-threshold}") int failureThreshold,
+        @Value("${external.api.circuit-breaker.open-duration}") long openDuration
+    ) {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(CLIENT_NAME, failureThreshold, openDuration,
+            ExternalApiConfig::isExternalApiFailure,
+            transition -> {
+                log.warn("Circuit breaker [{}] changed state {} -> {}", transition.getName(), transition.getFrom(), transition.getTo());
+                meterRegistry.counter("external.api.circuit.transitions", "name", transition.getName(), "to", transition.getTo().name()).increment();
+            });
+
+        // 0 = closed, 1 = open, 2 = half-open
+        meterRegistry.gauge("external.api.circuit.state", Tags.of("name", CLIENT_NAME), circuitBreaker, breaker -> breaker.getState().ordinal());
+
+        return circuitBreaker;
+    }
+
+    // client errors are caused by the request itself and say nothing about health of the api, except rate limiting
+    private static boolean isExternalApiFailure(RuntimeException ex) {
+        return !(ex instanceof HttpClientErrorException) || ((HttpClientErrorException) ex).getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
     }
 
 }
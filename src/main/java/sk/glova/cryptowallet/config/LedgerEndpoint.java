@@ -0,0 +1,34 @@
+package sk.glova.cryptowallet.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import sk.glova.cryptowallet.domain.response.LedgerReplayReport;
+import sk.glova.cryptowallet.services.api.LedgerService;
+
+/**
+ * Actuator endpoint (/actuator/ledger) replaying the ledger of all wallets. GET only reports holdings whose amounts differ from the ledger,
+ * POST overwrites them with the replayed amounts. Every holding is folded from its first entry, or only from its latest snapshot when
+ * `fromSnapshots` is true.
+ */
+@Component
+@Endpoint(id = "ledger")
+@RequiredArgsConstructor
+public class LedgerEndpoint {
+
+    private final LedgerService ledgerService;
+
+    @ReadOperation
+    public LedgerReplayReport verify(@Nullable Boolean fromSnapshots) {
+        return ledgerService.replay(Boolean.TRUE.equals(fromSnapshots), false);
+    }
+
+    @WriteOperation
+    public LedgerReplayReport replay(@Nullable Boolean fromSnapshots) {
+        return ledgerService.replay(Boolean.TRUE.equals(fromSnapshots), true);
+    }
+
+}
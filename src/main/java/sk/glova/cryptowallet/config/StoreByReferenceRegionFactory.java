@@ -0,0 +1,19 @@
+package sk.glova.cryptowallet.config;
+
+import javax.cache.Cache;
+import javax.cache.configuration.MutableConfiguration;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+/**
+ * JCache region factory creating missing regions as store-by-reference. Hibernate creates them with the JCache default configuration, which
+ * is store-by-value, so caffeine would copy every entry by java serialization on each put and hit. Hibernate caches entities disassembled
+ * into immutable entries already, so the copy protects nothing. Other settings of the regions (bounds) come from application.conf.
+ */
+public class StoreByReferenceRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        return getCacheManager().createCache(regionName, new MutableConfiguration<>().setStoreByValue(false));
+    }
+
+}
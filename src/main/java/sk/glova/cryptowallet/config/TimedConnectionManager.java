@@ -0,0 +1,52 @@
+package sk.glova.cryptowallet.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Pooling connection manager which records how long the callers wait for a connection to be leased from the pool.
+ */
+class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Timer waitTimer;
+
+    TimedConnectionManager(MeterRegistry meterRegistry, String name) {
+        this.waitTimer = Timer.builder("httpcomponents.httpclient.pool.wait")
+            .description("Time spent waiting for a connection from the pool")
+            .tag("httpclient", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest request = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                final long start = System.nanoTime();
+                try {
+                    return request.get(timeout, timeUnit);
+                } finally {
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+
+        };
+    }
+
+}
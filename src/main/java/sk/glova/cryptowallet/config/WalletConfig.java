@@ -0,0 +1,55 @@
+package sk.glova.cryptowallet.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import sk.glova.cryptowallet.exception.ConcurrentUpdateException;
+import sk.glova.cryptowallet.utils.RetryPolicy;
+
+@Slf4j
+@Configuration
+public class WalletConfig {
+
+    private static final String UPDATE_NAME = "wallet-update";
+    private static final String HOLDING_CONSTRAINT = "uk_currency_wallet_code";
+    private static final String LEDGER_POSITION_CONSTRAINT = "uk_ledger_entry_holding_position";
+
+    @Bean
+    RetryPolicy walletUpdateRetryPolicy(
+        MeterRegistry meterRegistry,
+        @Value("${wallets.update-retry.max-attempts}") int maxAttempts,
+        @Value("${wallets.update-retry.initial-backoff}") long initialBackoff,
+        @Value("${wallets.update-retry.max-backoff}") long maxBackoff
+    ) {
+        return new RetryPolicy(UPDATE_NAME, maxAttempts, initialBackoff, maxBackoff,
+            WalletConfig::isConcurrentUpdate,
+            ex -> {
+                log.debug("Retrying [{}] after concurrent update: {}", UPDATE_NAME, ex.getMessage());
+                meterRegistry.counter("wallet.update.retries", "exception", ex.getClass().getSimpleName()).increment();
+            },
+            ex -> {
+                meterRegistry.counter("wallet.update.conflicts").increment();
+                return new ConcurrentUpdateException("Wallet was concurrently updated by other requests, try again later.", ex);
+            });
+    }
+
+    // lost optimistic lock, lock timeout or deadlock, the same holding concurrently opened by other transaction, or the same ledger position
+    // appended by other transaction (entries are inserted before the version check of the holding is flushed)
+    private static boolean isConcurrentUpdate(RuntimeException ex) {
+        if (ex instanceof ConcurrencyFailureException) {
+            return true;
+        }
+        if (ex instanceof DataIntegrityViolationException && ex.getCause() instanceof ConstraintViolationException) {
+            final String constraint = ((ConstraintViolationException) ex.getCause()).getConstraintName();
+            return constraint != null
+                && (constraint.toLowerCase().contains(HOLDING_CONSTRAINT) || constraint.toLowerCase().contains(LEDGER_POSITION_CONSTRAINT));
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,54 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.springframework.http.HttpStatus.OK;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+import sk.glova.cryptowallet.domain.request.AddCurrencyRequest;
+import sk.glova.cryptowallet.services.api.CurrencyService;
+
+@RestController
+@RequestMapping(value = "rest/v1/admin/currency", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class CurrencyAdminController {
+
+    final private CurrencyService service;
+
+    @Operation(description = "Returns current catalog of supported crypto currencies and fiat currencies with its version.")
+    @ResponseStatus(OK)
+    @GetMapping
+    public CurrencyCatalog getCatalog() {
+        return service.getCatalog();
+    }
+
+    @Operation(description = "Adds supported crypto currency or fiat currency. New catalog is used immediately and rates are refreshed " +
+        "in the background.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>currency is already supported</li>" +
+        "<li>provided code is not 2 to 10 letters or digits</li></ul>")
+    @ResponseStatus(OK)
+    @PostMapping
+    public CurrencyCatalog addCurrency(@RequestBody AddCurrencyRequest request) {
+        return service.addCurrency(request);
+    }
+
+    @Operation(description = "Removes supported crypto currency or fiat currency. Wallets keep their amounts in removed currency.")
+    @ApiResponse(responseCode = "404", description = "When currency is not supported.")
+    @ResponseStatus(OK)
+    @DeleteMapping("/{code}")
+    public CurrencyCatalog removeCurrency(@PathVariable String code) {
+        return service.removeCurrency(code);
+    }
+
+}
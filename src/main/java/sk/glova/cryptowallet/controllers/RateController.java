@@ -1,34 +1,155 @@
 package sk.glova.cryptowallet.controllers;
 
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import sk.glova.cryptowallet.domain.model.CryptoCurrencyRate;
-import sk.glova.cryptowallet.services.impl.RateServiceImpl;
+import sk.glova.cryptowallet.domain.request.RateFilter;
+import sk.glova.cryptowallet.domain.response.Candle;
+import sk.glova.cryptowallet.domain.response.SerializedRatePage;
+import sk.glova.cryptowallet.services.api.RateHistoryService;
+import sk.glova.cryptowallet.services.api.RatePageService;
 
 @RestController
 @RequestMapping(value = "rest/v1/rate", produces = MediaType.APPLICATION_JSON_VALUE)
 @RequiredArgsConstructor
 public class RateController {
 
-    final private RateServiceImpl service;
+    private static final String GZIP = "gzip";
+    private static final String GZIP_SUFFIX = "-" + GZIP;
 
-    @Operation(description = "Returns all supported cryptocurrencies with their rates. Result is paginated with sorting capabilities.")
+    // snapshot versions restart with the process, so ETags are prefixed by its start time and tags of a previous process never match
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    final private RatePageService pageService;
+    final private RateHistoryService historyService;
+
+    @Operation(description = "Returns all supported cryptocurrencies with their rates. Result can be narrowed to some " +
+        "cryptocurrencies and fiat currencies, it is paginated with sorting capabilities applied after filtering. " +
+        "ETag of the response changes with every rate refresh.")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = RatePageSchema.class)))
+    @ApiResponse(responseCode = "304", description = "When rates did not change since the version given in If-None-Match header", content = @Content)
     @PageableAsQueryParam
-    @ResponseStatus(OK)
     @GetMapping
-    public Page<CryptoCurrencyRate> getRates(@Parameter(hidden = true) Pageable pageable) {
-        return service.getRates(pageable);
+    public ResponseEntity<byte[]> getRates(
+        @Parameter(hidden = true) Pageable pageable,
+        @Parameter(description = "Crypto-currency codes to return (all when omitted)") @RequestParam(required = false) Set<String> symbols,
+        @Parameter(description = "Fiat currency codes to return (all when omitted)") @RequestParam(required = false) Set<String> fiats,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        final boolean gzip = acceptsGzip(acceptEncoding);
+
+        // client already has the current version, nothing has to be built
+        if (ifNoneMatch != null) {
+            final long version = pageService.getCurrentVersion();
+            if (matchesVersion(ifNoneMatch, version)) {
+                return ResponseEntity.status(NOT_MODIFIED)
+                    .eTag(eTag(version, gzip))
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+            }
+        }
+
+        final SerializedRatePage page = pageService.getPage(RateFilter.of(symbols, fiats), pageable);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .eTag(eTag(page.getVersion(), gzip))
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        return gzip
+            ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(page.getGzip())
+            : response.body(page.getJson());
+    }
+
+    @Operation(description = "Returns OHLC candles of the rate of given crypto-currency in given fiat currency. Intervals without any rate are omitted.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>currency or cryptocurrency is not supported</li>" +
+        "<li>time range is empty or resolution is not positive</li>" +
+        "<li>time range contains too many candles of given resolution</li></ul>")
+    @ResponseStatus(OK)
+    @GetMapping("/history/{crypto}/{fiat}")
+    public List<Candle> getHistory(
+        @PathVariable String crypto,
+        @PathVariable String fiat,
+        @Parameter(description = "Start of the time range (ISO-8601), one day before the end when omitted")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @Parameter(description = "End of the time range (ISO-8601), now when omitted")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @Parameter(description = "Length of one candle (ISO-8601 duration, e.g. PT1M)")
+        @RequestParam(defaultValue = "PT1H") Duration resolution
+    ) {
+        final Instant end = to != null ? to : Instant.now();
+        final Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        return historyService.getCandles(crypto, fiat, start, end, resolution);
+    }
+
+    // strong ETag of the representation, gzip variant is a different representation of the same version
+    private static String eTag(long version, boolean gzip) {
+        return "\"" + validator(version) + (gzip ? GZIP_SUFFIX : "") + "\"";
+    }
+
+    private static String validator(long version) {
+        return EPOCH + "." + version;
+    }
+
+    private static boolean matchesVersion(String ifNoneMatch, long version) {
+        final String expected = validator(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            final String value = tag.trim().replace("W/", "").replace("\"", "").replace(GZIP_SUFFIX, "");
+            if (value.equals("*") || value.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // documentation of the pre-serialized rate page
+    private static class RatePageSchema extends PageImpl<CryptoCurrencyRate> {
+
+        RatePageSchema() {
+            super(List.of());
+        }
+
     }
 
 }
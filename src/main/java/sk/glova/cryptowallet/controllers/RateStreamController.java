@@ -0,0 +1,32 @@
+package sk.glova.cryptowallet.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sk.glova.cryptowallet.services.api.RateStreamService;
+
+@RestController
+@RequestMapping(value = "rest/v1/rate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+@RequiredArgsConstructor
+public class RateStreamController {
+
+    final private RateStreamService service;
+
+    @Operation(description = "Streams rates as Server-Sent Events. The first \"snapshot\" event contains current rates, following \"update\" events " +
+        "contain only changed rates. Slow subscribers are resynchronized or disconnected according to configured overflow policy.")
+    @GetMapping
+    public SseEmitter streamRates(
+        @Parameter(description = "Crypto-currency codes to stream (all when omitted)") @RequestParam(required = false) Set<String> symbols,
+        @Parameter(description = "Fiat currency codes to stream (all when omitted)") @RequestParam(required = false) Set<String> fiats
+    ) {
+        return service.subscribe(symbols, fiats);
+    }
+
+}
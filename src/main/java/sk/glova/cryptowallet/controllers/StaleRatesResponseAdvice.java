@@ -0,0 +1,43 @@
+package sk.glova.cryptowallet.controllers;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import sk.glova.cryptowallet.utils.StaleRates;
+
+/**
+ * Flags responses computed from last known rates (external API not reachable) by Warning header and the age of the used rates.
+ */
+@ControllerAdvice
+public class StaleRatesResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String RATE_AGE_HEADER = "X-Rate-Age";
+
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+        Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+
+        final Instant fetchedAt = StaleRates.getFetchedAt();
+        if (fetchedAt != null) {
+            response.getHeaders().add(HttpHeaders.WARNING, STALE_WARNING);
+            // age in seconds, the same unit as standard Age header
+            response.getHeaders().set(RATE_AGE_HEADER, String.valueOf(Duration.between(fetchedAt, Instant.now()).getSeconds()));
+        }
+        return body;
+    }
+
+}
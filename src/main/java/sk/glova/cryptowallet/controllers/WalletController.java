@@ -1,122 +1,180 @@
-package sk.glova.cryptowallet.controllers;
-
-import static org.springframework.http.HttpStatus.CREATED;
-import static org.springframework.http.HttpStatus.OK;
-import static sk.glova.cryptowallet.utils.ControllerUtils.getCurrentLocationWithId;
-
-import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
-import org.springframework.web.bind.annotation.RestController;
-import sk.glova.cryptowallet.domain.model.Wallet;
-import sk.glova.cryptowallet.domain.request.AddRequest;
-import sk.glova.cryptowallet.domain.request.TransferRequest;
-import sk.glova.cryptowallet.domain.request.UpsertWalletRequest;
-import sk.glova.cryptowallet.services.impl.WalletServiceImpl;
-
-// TODO add endpoint for withdraws crypto currency from wallet into fiat currency (opposite of add endpoint)
-@RestController
-@RequestMapping(value = "rest/v1/wallet", produces = MediaType.APPLICATION_JSON_VALUE)
-@RequiredArgsConstructor
-public class WalletController {
-
-    final private WalletServiceImpl service;
-
-    @Operation(description = "Creates an empty wallet with the name based on upsert request DTO.")
-    @ApiResponse(responseCode = "422", description = "When:<ul>" +
-        "<li>provided name is already in use</li>" +
-        "<li>provided name is null or empty string</li></ul>")
-    @ResponseStatus(CREATED)
-    @PostMapping
-    public ResponseEntity<Wallet> createWallet(@RequestBody UpsertWalletRequest request) {
-        Wallet savedWallet = service.createWallet(request);
-        return ResponseEntity.created(getCurrentLocationWithId(savedWallet.getId())).body(savedWallet);
-    }
-
-    @Operation(description = "Updates the wallet with given ID. Values are taken from given upsert request DTO.")
-    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
-    @ApiResponse(responseCode = "422", description = "When:<ul>" +
-        "<li>provided name is already in use</li>" +
-        "<li>provided name is the same as it was</li>" +
-        "<li>provided name is null or empty string</li></ul>")
-    @ResponseStatus(OK)
-    @PutMapping("/{walletId}")
-    public Wallet updateWallet(
-        @PathVariable Long walletId,
-        @RequestBody UpsertWalletRequest request
-    ) {
-        service.updateWallet(walletId, request);
-        return service.getWallet(walletId);
-    }
-
-    @Operation(description = "Returns the wallet with given ID.")
-    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
-    @ResponseStatus(OK)
-    @GetMapping("/{walletId}")
-    public Wallet getWallet(@PathVariable Long walletId) {
-        return service.getWallet(walletId);
-    }
-
-    @Operation(description = "Returns all wallets. Result is paginated with sorting capabilities.")
-    @ResponseStatus(OK)
-    @GetMapping
-    public Page<Wallet> getWallets(@Parameter(hidden = true) Pageable pageable) {
-        return service.getWallets(pageable);
-    }
-
-    @Operation(description = "Deletes the wallet with given ID.")
-    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
-    @ResponseStatus(OK)
-    @DeleteMapping("/{walletId}")
-    public Wallet deleteWallet(@PathVariable Long walletId) {
-        final Wallet wallet = service.getWallet(walletId);
-        service.deleteWallet(walletId);
-        return wallet;
-    }
-
-    @Operation(description = "Adds crypto currency to wallet with given ID. It converts fiat currency into crypto currency according current rate " +
-        "(if crypto currency exist in wallet - given amount increments the previous one, if does not exist - it creates new one with given amount).")
-    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
-    @ApiResponse(responseCode = "422", description = "When currency or cryptocurrency is not supported.")
-    @ResponseStatus(OK)
-    @PostMapping("/{walletId}/add")
-    public Wallet add(
-        @PathVariable Long walletId,
-        @RequestBody AddRequest addRequest
-    ) {
-        service.add(walletId, addRequest);
-        return service.getWallet(walletId);
-    }
-
-    @Operation(description = "Transfers crypto currency from wallet with given ID. It converts from one crypto currency into another according " +
-        "current rate. It decrements wallet from which payment is outgoing and increment wallet to which payment is incoming (if currency exist in" +
-        " wallet - given amount increments the previous one, if does not exist - it creates new one with given amount).")
-    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
-    @ApiResponse(responseCode = "422", description = "When:<ul>" +
-        "<li>currency or cryptocurrency is not supported</li>" +
-        "<li>wallet does not have specified currency</li>" +
-        "<li>wallet does not have enough amount in specified currency</li></ul>")
-    @ResponseStatus(OK)
-    @PostMapping("/{walletId}/transfer")
-    public Wallet transfer(
-        @PathVariable Long walletId,
-        @RequestBody TransferRequest transferRequest
-    ) {
-        service.transfer(walletId, transferRequest);
-        return service.getWallet(walletId);
-    }
-
-}
+package sk.glova.cryptowallet.controllers;
+
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.OK;
+import static sk.glova.cryptowallet.utils.ControllerUtils.getCurrentLocationWithId;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import sk.glova.cryptowallet.domain.request.AddRequest;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.request.BulkCreateWalletsRequest;
+import sk.glova.cryptowallet.domain.request.TransferRequest;
+import sk.glova.cryptowallet.domain.request.UpsertWalletRequest;
+import sk.glova.cryptowallet.domain.response.BatchTransferResponse;
+import sk.glova.cryptowallet.domain.response.BulkAddResponse;
+import sk.glova.cryptowallet.domain.response.BulkCreateWalletsResponse;
+import sk.glova.cryptowallet.domain.response.LedgerEntryResponse;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
+import sk.glova.cryptowallet.services.api.LedgerService;
+import sk.glova.cryptowallet.services.impl.WalletServiceImpl;
+
+// TODO add endpoint for withdraws crypto currency from wallet into fiat currency (opposite of add endpoint)
+@RestController
+@RequestMapping(value = "rest/v1/wallet", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class WalletController {
+
+    final private WalletServiceImpl service;
+    final private LedgerService ledgerService;
+
+    @Operation(description = "Creates an empty wallet with the name based on upsert request DTO.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>provided name is already in use</li>" +
+        "<li>provided name is null or empty string</li></ul>")
+    @ResponseStatus(CREATED)
+    @PostMapping
+    public ResponseEntity<WalletResponse> createWallet(@RequestBody UpsertWalletRequest request) {
+        WalletResponse savedWallet = service.createWallet(request);
+        return ResponseEntity.created(getCurrentLocationWithId(savedWallet.getId())).body(savedWallet);
+    }
+
+    @Operation(description = "Creates empty wallets with given names in one transaction, intended for onboarding of many wallets at once.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>no name is provided or more names than allowed</li>" +
+        "<li>any of names is null, empty string, provided more than once or already in use</li></ul>")
+    @ResponseStatus(CREATED)
+    @PostMapping("/bulk")
+    public BulkCreateWalletsResponse createWallets(@RequestBody BulkCreateWalletsRequest request) {
+        return service.createWallets(request);
+    }
+
+    @Operation(description = "Updates the wallet with given ID. Values are taken from given upsert request DTO.")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>provided name is already in use</li>" +
+        "<li>provided name is the same as it was</li>" +
+        "<li>provided name is null or empty string</li></ul>")
+    @ResponseStatus(OK)
+    @PutMapping("/{walletId}")
+    public WalletResponse updateWallet(
+        @PathVariable Long walletId,
+        @RequestBody UpsertWalletRequest request
+    ) {
+        service.updateWallet(walletId, request);
+        return service.getWallet(walletId);
+    }
+
+    @Operation(description = "Returns the wallet with given ID.")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ResponseStatus(OK)
+    @GetMapping("/{walletId}")
+    public WalletResponse getWallet(@PathVariable Long walletId) {
+        return service.getWallet(walletId);
+    }
+
+    @Operation(description = "Returns ledger entries (every change of amounts by add and transfer) of the wallet with given ID. Result is " +
+        "paginated with sorting capabilities, the newest entries come first by default.")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ResponseStatus(OK)
+    @GetMapping("/{walletId}/ledger")
+    public Page<LedgerEntryResponse> getLedger(@PathVariable Long walletId, @Parameter(hidden = true) Pageable pageable) {
+        return ledgerService.getEntries(walletId, pageable);
+    }
+
+    @Operation(description = "Returns all wallets. Result is paginated with sorting capabilities.")
+    @ResponseStatus(OK)
+    @GetMapping
+    public Page<WalletResponse> getWallets(@Parameter(hidden = true) Pageable pageable) {
+        return service.getWallets(pageable);
+    }
+
+    @Operation(description = "Deletes the wallet with given ID.")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ResponseStatus(OK)
+    @DeleteMapping("/{walletId}")
+    public WalletResponse deleteWallet(@PathVariable Long walletId) {
+        final WalletResponse wallet = service.getWallet(walletId);
+        service.deleteWallet(walletId);
+        return wallet;
+    }
+
+    @Operation(description = "Adds crypto currency to wallet with given ID. It converts fiat currency into crypto currency according current rate " +
+        "(if crypto currency exist in wallet - given amount increments the previous one, if does not exist - it creates new one with given amount).")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ApiResponse(responseCode = "422", description = "When currency or cryptocurrency is not supported.")
+    @ApiResponse(responseCode = "409", description = "When the wallet was concurrently updated by other requests and all retries failed.")
+    @ResponseStatus(OK)
+    @PostMapping("/{walletId}/add")
+    public WalletResponse add(
+        @PathVariable Long walletId,
+        @RequestBody AddRequest addRequest
+    ) {
+        service.add(walletId, addRequest);
+        return service.getWallet(walletId);
+    }
+
+    @Operation(description = "Adds crypto currencies to many wallets in one transaction, every addition like the add endpoint does. Every " +
+        "distinct pair of currencies is converted by a rate derived from the same rate snapshot. Nothing is added when any addition fails.")
+    @ApiResponse(responseCode = "404", description = "When any of wallets does not exist.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>no addition is provided or more additions than allowed</li>" +
+        "<li>currency or cryptocurrency of any addition is not supported</li>" +
+        "<li>amount of any addition is not positive</li></ul>")
+    @ApiResponse(responseCode = "409", description = "When the wallets were concurrently updated by other requests and all retries failed.")
+    @ResponseStatus(OK)
+    @PostMapping("/bulk/add")
+    public BulkAddResponse addToWallets(@RequestBody BulkAddRequest request) {
+        return service.addToWallets(request);
+    }
+
+    @Operation(description = "Transfers crypto currency from wallet with given ID. It converts from one crypto currency into another according " +
+        "current rate. It decrements wallet from which payment is outgoing and increment wallet to which payment is incoming (if currency exist in" +
+        " wallet - given amount increments the previous one, if does not exist - it creates new one with given amount).")
+    @ApiResponse(responseCode = "404", description = "When wallet with given ID does not exist.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>currency or cryptocurrency is not supported</li>" +
+        "<li>wallet does not have specified currency</li>" +
+        "<li>wallet does not have enough amount in specified currency</li></ul>")
+    @ApiResponse(responseCode = "409", description = "When the wallet was concurrently updated by other requests and all retries failed.")
+    @ResponseStatus(OK)
+    @PostMapping("/{walletId}/transfer")
+    public WalletResponse transfer(
+        @PathVariable Long walletId,
+        @RequestBody TransferRequest transferRequest
+    ) {
+        service.transfer(walletId, transferRequest);
+        return service.getWallet(walletId);
+    }
+
+    @Operation(description = "Transfers crypto currencies between wallets by a batch of transfers applied in one transaction, in the order of the " +
+        "request (a transfer may spend what an earlier one credited). Every distinct pair of currencies is converted by a rate derived from the " +
+        "same rate snapshot. In ATOMIC mode (default) the first rejected transfer rolls back the whole batch, in PER_ITEM mode rejected transfers " +
+        "are reported and the others are applied.")
+    @ApiResponse(responseCode = "422", description = "When:<ul>" +
+        "<li>batch is empty or contains more transfers than allowed</li>" +
+        "<li>any of transfers is rejected in ATOMIC mode</li></ul>")
+    @ApiResponse(responseCode = "409", description = "When the wallets were concurrently updated by other requests and all retries failed.")
+    @ResponseStatus(OK)
+    @PostMapping("/transfers")
+    public BatchTransferResponse transferBatch(@RequestBody BatchTransferRequest request) {
+        return service.transferBatch(request);
+    }
+
+}
@@ -7,8 +7,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import sk.glova.cryptowallet.domain.response.ApiError;
+import sk.glova.cryptowallet.exception.ConcurrentUpdateException;
 import sk.glova.cryptowallet.exception.EntityNotFoundException;
 import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
 
 @RestControllerAdvice
 public class RestExceptionHandler {
@@ -23,6 +25,16 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(createApiError(ex).status(HttpStatus.UNPROCESSABLE_ENTITY.toString()).build(), HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ApiError> handleConflict(HttpServletRequest request, ConcurrentUpdateException ex) {
+        return new ResponseEntity<>(createApiError(ex).status(HttpStatus.CONFLICT.toString()).build(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RateUnavailableException.class)
+    public ResponseEntity<ApiError> handleRateUnavailable(HttpServletRequest request, RateUnavailableException ex) {
+        return new ResponseEntity<>(createApiError(ex).status(HttpStatus.SERVICE_UNAVAILABLE.toString()).build(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     private ApiError.ApiErrorBuilder createApiError(RuntimeException ex) {
         return ApiError.builder()
             .message(ex.getMessage())
@@ -0,0 +1,14 @@
+package sk.glova.cryptowallet.dao;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import sk.glova.cryptowallet.domain.model.BalanceSnapshot;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    List<BalanceSnapshot> findByWalletIdIn(Collection<Long> walletIds);
+
+}
@@ -1,8 +1,24 @@
 package sk.glova.cryptowallet.dao;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import sk.glova.cryptowallet.domain.model.SupportedCurrency;
 
 public interface CurrencyRepository extends JpaRepository<SupportedCurrency, Long> {
 
+    // result is kept in the query cache until supported currencies change
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<SupportedCurrency> findAll();
+
+    Optional<SupportedCurrency> findByCode(String code);
+
+    @Query("select c.code from SupportedCurrency c")
+    Set<String> findAllCodes();
+
 }
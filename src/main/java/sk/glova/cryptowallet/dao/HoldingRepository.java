@@ -0,0 +1,24 @@
+package sk.glova.cryptowallet.dao;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sk.glova.cryptowallet.domain.model.Currency;
+
+@Repository
+public interface HoldingRepository extends JpaRepository<Currency, Long> {
+
+    // holdings of a whole page of wallets in one query
+    List<Currency> findByWalletIdIn(Collection<Long> walletIds);
+
+    // holdings with at least minEntries ledger entries after their latest snapshot, paged by ID
+    @Query("select c.id from Currency c where c.id > :afterId"
+        + " and c.ledgerPosition - coalesce((select s.position from BalanceSnapshot s where s.holdingId = c.id), 0) >= :minEntries"
+        + " order by c.id")
+    List<Long> findIdsToSnapshot(@Param("afterId") Long afterId, @Param("minEntries") long minEntries, Pageable pageable);
+
+}
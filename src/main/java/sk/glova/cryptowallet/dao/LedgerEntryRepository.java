@@ -0,0 +1,27 @@
+package sk.glova.cryptowallet.dao;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sk.glova.cryptowallet.domain.model.LedgerEntry;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    Page<LedgerEntry> findByWalletId(Long walletId, Pageable pageable);
+
+    // all entries of a chunk of wallets, grouped by holding in the order of positions
+    List<LedgerEntry> findByWalletIdInOrderByHoldingIdAscPositionAsc(Collection<Long> walletIds);
+
+    // entries of given holdings appended after their latest snapshot (all of them when there is no snapshot yet)
+    @Query("select e from LedgerEntry e where e.holdingId in :holdingIds"
+        + " and e.position > coalesce((select s.position from BalanceSnapshot s where s.holdingId = e.holdingId), 0)"
+        + " order by e.holdingId, e.position")
+    List<LedgerEntry> findTails(@Param("holdingIds") Collection<Long> holdingIds);
+
+}
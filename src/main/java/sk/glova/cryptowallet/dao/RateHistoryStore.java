@@ -0,0 +1,223 @@
+package sk.glova.cryptowallet.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Local time-series store of rates. Every currency pair has its own fixed-size ring buffer of (timestamp, fixed-point rate) points living in a
+ * memory-mapped file, so appends and reads are plain memory accesses and the data survive restarts. When the ring is full, the oldest points
+ * are overwritten. Timestamps of one pair are strictly increasing, which allows binary search over time.
+ */
+@Slf4j
+@Repository
+public class RateHistoryStore {
+
+    private static final String SUFFIX = ".ts";
+    private static final String PAIR_SEPARATOR = "-";
+
+    private final Path directory;
+    private final int capacity;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public RateHistoryStore(
+        @Value("${rates.history.directory}") String directory,
+        @Value("${rates.history.capacity}") int capacity
+    ) throws IOException {
+        this.directory = Paths.get(directory);
+        this.capacity = capacity;
+
+        Files.createDirectories(this.directory);
+        openExisting();
+    }
+
+    /**
+     * Receives one point of a series.
+     */
+    @FunctionalInterface
+    public interface PointConsumer {
+
+        void accept(long timestamp, long value);
+
+    }
+
+    /**
+     * Receives the latest point of a series.
+     */
+    @FunctionalInterface
+    public interface LatestPointConsumer {
+
+        void accept(String crypto, String fiat, long timestamp, long value);
+
+    }
+
+    /**
+     * Appends point to the series of given pair. Points not newer than the last point of the series are ignored.
+     *
+     * @return true when the point was appended
+     */
+    public boolean append(String crypto, String fiat, long timestamp, long value) {
+        return series.computeIfAbsent(key(crypto, fiat), this::create).append(timestamp, value);
+    }
+
+    /**
+     * Passes all points of given pair with timestamp in [from, to) to the consumer in chronological order.
+     */
+    public void scan(String crypto, String fiat, long from, long to, PointConsumer consumer) {
+        final Series pairSeries = series.get(key(crypto, fiat));
+        if (pairSeries != null) {
+            pairSeries.scan(from, to, consumer);
+        }
+    }
+
+    /**
+     * Passes the latest point of every stored pair to the consumer.
+     */
+    public void forEachLatest(LatestPointConsumer consumer) {
+        series.forEach((key, pairSeries) -> {
+            final String[] pair = key.split(PAIR_SEPARATOR);
+            pairSeries.latest((timestamp, value) -> consumer.accept(pair[0], pair[1], timestamp, value));
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        series.values().forEach(Series::close);
+    }
+
+    private void openExisting() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final String key = fileName.substring(0, fileName.length() - SUFFIX.length());
+                series.put(key, create(key));
+            }
+        }
+        log.info("Opened {} rate history series in {}", series.size(), directory);
+    }
+
+    private Series create(String key) {
+        try {
+            return new Series(directory.resolve(key + SUFFIX), capacity);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Rate history series [" + key + "] can not be opened.", ex);
+        }
+    }
+
+    private static String key(String crypto, String fiat) {
+        return crypto + PAIR_SEPARATOR + fiat;
+    }
+
+    /**
+     * Ring buffer of one pair. File layout: header (capacity, total number of appended points) followed by capacity records of (timestamp,
+     * value), all as big-endian longs.
+     */
+    private static final class Series {
+
+        private static final int HEADER_SIZE = 16;
+        private static final int CAPACITY_OFFSET = 0;
+        private static final int COUNT_OFFSET = 8;
+        private static final int RECORD_SIZE = 16;
+
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // total number of points ever appended, the ring holds the last min(count, capacity) of them
+        private long count;
+
+        Series(Path file, int defaultCapacity) throws IOException {
+            // mapping stays valid after the channel is closed, so large catalogs do not hold a file descriptor per pair
+            final boolean existing;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // existing file keeps the capacity it was created with
+                existing = channel.size() >= HEADER_SIZE;
+                this.capacity = existing ? readCapacity(channel) : defaultCapacity;
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            }
+
+            if (existing) {
+                this.count = buffer.getLong(COUNT_OFFSET);
+            } else {
+                buffer.putLong(CAPACITY_OFFSET, capacity);
+                buffer.putLong(COUNT_OFFSET, 0);
+            }
+        }
+
+        synchronized boolean append(long timestamp, long value) {
+            if (count > 0 && timestamp <= timestampAt(count - 1)) {
+                return false;
+            }
+
+            final int position = position(count);
+            buffer.putLong(position, timestamp);
+            buffer.putLong(position + 8, value);
+
+            // count is published last, so a crash in between loses the point instead of exposing a half-written one
+            count++;
+            buffer.putLong(COUNT_OFFSET, count);
+            return true;
+        }
+
+        synchronized void scan(long from, long to, PointConsumer consumer) {
+            final long first = Math.max(0, count - capacity);
+
+            // binary search of the first point with timestamp >= from
+            long low = first;
+            long high = count;
+            while (low < high) {
+                final long middle = (low + high) >>> 1;
+                if (timestampAt(middle) < from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            for (long index = low; index < count; index++) {
+                final int position = position(index);
+                final long timestamp = buffer.getLong(position);
+                if (timestamp >= to) {
+                    break;
+                }
+                consumer.accept(timestamp, buffer.getLong(position + 8));
+            }
+        }
+
+        synchronized void latest(PointConsumer consumer) {
+            if (count > 0) {
+                final int position = position(count - 1);
+                consumer.accept(buffer.getLong(position), buffer.getLong(position + 8));
+            }
+        }
+
+        synchronized void close() {
+            buffer.force();
+        }
+
+        private long timestampAt(long index) {
+            return buffer.getLong(position(index));
+        }
+
+        private int position(long index) {
+            return HEADER_SIZE + (int) (index % capacity) * RECORD_SIZE;
+        }
+
+        private static int readCapacity(FileChannel channel) throws IOException {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            return (int) header.getLong(CAPACITY_OFFSET);
+        }
+
+    }
+
+}
@@ -1,13 +1,34 @@
-package sk.glova.cryptowallet.dao;
-
-import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-import sk.glova.cryptowallet.domain.model.Wallet;
-
-@Repository
-public interface WalletRepository extends JpaRepository<Wallet, Long> {
-
-    Optional<Wallet> findByName(String name);
-
-}
+package sk.glova.cryptowallet.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sk.glova.cryptowallet.domain.model.Wallet;
+
+@Repository
+public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    Optional<Wallet> findByName(String name);
+
+    // names already in use out of given ones, uniqueness of a whole bulk is checked by one query
+    @Query("select w.name from Wallet w where w.name in :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // IDs of wallets paged by ID, so that a walk over all wallets is not slowed down by offsets
+    @Query("select w.id from Wallet w where w.id > :afterId order by w.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // wallets with all their holdings in one query (fetch join instead of an entity graph, whose query plan is compiled on every call)
+    @Query("select distinct w from Wallet w left join fetch w.holdings where w.id in :ids")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<Wallet> findWithHoldingsByIdIn(@Param("ids") Collection<Long> ids);
+
+}
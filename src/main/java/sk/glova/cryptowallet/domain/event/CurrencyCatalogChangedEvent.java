@@ -0,0 +1,18 @@
+package sk.glova.cryptowallet.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+
+/**
+ * Published whenever supported currencies are added or removed and a new catalog replaces the previous one.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CurrencyCatalogChangedEvent {
+
+    private final CurrencyCatalog previous;
+
+    private final CurrencyCatalog current;
+
+}
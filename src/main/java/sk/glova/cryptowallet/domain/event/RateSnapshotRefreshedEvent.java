@@ -0,0 +1,19 @@
+package sk.glova.cryptowallet.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+
+/**
+ * Published whenever a new rate snapshot replaces the previous one.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RateSnapshotRefreshedEvent {
+
+    // null when this is the very first snapshot
+    private final RateSnapshot previous;
+
+    private final RateSnapshot current;
+
+}
@@ -0,0 +1,47 @@
+package sk.glova.cryptowallet.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Amount of a holding folded from its ledger entries up to given position. Snapshots are taken in background and only by one thread, the
+ * amount at any later position is the snapshot plus the tail of entries after it.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+public class BalanceSnapshot {
+
+    // the latest snapshot of a holding replaces the previous one
+    @Id
+    private Long holdingId;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private String code;
+
+    // position of the last folded entry
+    private long position;
+
+    @Column(nullable = false, precision = 38, scale = Currency.AMOUNT_SCALE)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+
+}
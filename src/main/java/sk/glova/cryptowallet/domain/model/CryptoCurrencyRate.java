@@ -1,54 +1,75 @@
 package sk.glova.cryptowallet.domain.model;
 
-import java.lang.reflect.Field;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
 
-@Builder
+/**
+ * Rates of one crypto-currency - a lightweight view of one row of the {@link RateMatrix}, optionally projected to some of the fiat
+ * currencies. JSON is written straight from the matrix.
+ */
 @Getter
-@Setter
+@JsonSerialize(using = CryptoCurrencyRateSerializer.class)
 public class CryptoCurrencyRate {
 
-    String name;
-    Map<String, BigDecimal> currencyRates;
-
-    // TODO consider split Comparator into separate class
-    @AllArgsConstructor
-    public static class Comparator implements java.util.Comparator<CryptoCurrencyRate> {
-
-        final String sortBy;
-        final String sortOrder;
-
-        @Override
-        public int compare(CryptoCurrencyRate o1, CryptoCurrencyRate o2) {
-
-            try {
-                Field field1 = o1.getClass().getDeclaredField(sortBy);
-                Field field2 = o2.getClass().getDeclaredField(sortBy);
-
-                field1.setAccessible(true);
-                field2.setAccessible(true);
-
-                if (o1.getClass().getDeclaredField(sortBy).getType() == Map.class) {
-                    return 0;
-                } else {
-                    String d1 = (String) field1.get(o1);
-                    String d2 = (String) field2.get(o2);
-                    return (sortOrder.equalsIgnoreCase("asc")) ? d1.compareTo(d2) : d2.compareTo(d1);
-                }
-            } catch (SecurityException | IllegalArgumentException | IllegalAccessException e) {
-                throw new RuntimeException(e);
-            } catch (NoSuchFieldException e) {
-                throw new RuntimeException("Missing variable sortBy");
-            } catch (ClassCastException e) {
-                throw new RuntimeException("sortBy is not found in class list");
+    private final RateMatrix matrix;
+    private final int row;
+    // ordinals of the fiat currencies in the view in ascending order, null when all fiat currencies are in the view
+    private final int[] fiatOrdinals;
+
+    public CryptoCurrencyRate(RateMatrix matrix, int row) {
+        this(matrix, row, null);
+    }
+
+    public CryptoCurrencyRate(RateMatrix matrix, int row, int[] fiatOrdinals) {
+        this.matrix = matrix;
+        this.row = row;
+        this.fiatOrdinals = fiatOrdinals;
+    }
+
+    public String getName() {
+        return matrix.getCrypto(row);
+    }
+
+    /**
+     * @return rate in given fiat currency scaled by 10^{@value RateMatrix#SCALE} or {@link RateMatrix#MISSING}
+     */
+    public long getScaledRate(int fiatOrdinal) {
+        return matrix.getScaled(row, fiatOrdinal);
+    }
+
+    /**
+     * Builds map of rates (fiat currency code -> rate). Allocates, prefer {@link #getScaledRate(int)} on hot paths.
+     *
+     * @return map of rates
+     */
+    public Map<String, BigDecimal> getCurrencyRates() {
+        final Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        final int fiatCount = getFiatCount();
+        for (int i = 0; i < fiatCount; i++) {
+            final int fiat = getFiatOrdinal(i);
+            final BigDecimal rate = matrix.get(row, fiat);
+            if (rate != null) {
+                rates.put(matrix.getFiat(fiat), rate);
             }
         }
+        return rates;
+    }
+
+    /**
+     * @return number of fiat currencies in the view
+     */
+    public int getFiatCount() {
+        return fiatOrdinals == null ? matrix.getFiatCount() : fiatOrdinals.length;
+    }
 
+    /**
+     * @return matrix ordinal of the i-th fiat currency of the view
+     */
+    public int getFiatOrdinal(int i) {
+        return fiatOrdinals == null ? i : fiatOrdinals[i];
     }
 
-}
\ No newline at end of file
+}
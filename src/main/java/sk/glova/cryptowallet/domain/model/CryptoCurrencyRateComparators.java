@@ -0,0 +1,117 @@
+package sk.glova.cryptowallet.domain.model;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.domain.Sort;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+
+/**
+ * Comparators of {@link CryptoCurrencyRate} resolved once per sort specification and cached. Supported sort properties are {@code name} and any
+ * fiat currency code (e.g. {@code sort=EUR,desc}), which sorts by the rate in that fiat currency. Rates missing a value are always last.
+ * Rates equal in all sort properties are ordered by their matrix row, so the order is total and pages are stable regardless of the sort
+ * algorithm.
+ */
+public final class CryptoCurrencyRateComparators {
+
+    public static final String NAME = "name";
+
+    // sort specs come from clients, so the cache is bounded to protect it from arbitrary combinations
+    private static final int MAX_CACHED_SPECS = 256;
+
+    private static final Comparator<CryptoCurrencyRate> BY_ROW = comparingInt(CryptoCurrencyRate::getRow);
+
+    private static final Map<Sort, Comparator<CryptoCurrencyRate>> CACHE = new ConcurrentHashMap<>();
+
+    private CryptoCurrencyRateComparators() {
+    }
+
+    /**
+     * Returns comparator for given sort (orders are applied in declared order, the first one is the primary).
+     *
+     * @param sort sort specification, must be sorted
+     * @param fiatCodes fiat currency codes allowed as sort property
+     * @return comparator
+     * @throws OperationNotAllowedException when sort property is neither name nor supported fiat currency
+     */
+    public static Comparator<CryptoCurrencyRate> of(Sort sort, Set<String> fiatCodes) throws OperationNotAllowedException {
+        // supported fiats change with the catalog, so properties are validated on every call and never by the presence of a cached comparator
+        for (Sort.Order order : sort) {
+            validate(order.getProperty(), fiatCodes);
+        }
+
+        final Comparator<CryptoCurrencyRate> cached = CACHE.get(sort);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Comparator<CryptoCurrencyRate> comparator = resolve(sort);
+
+        if (CACHE.size() >= MAX_CACHED_SPECS) {
+            CACHE.clear();
+        }
+        CACHE.put(sort, comparator);
+
+        return comparator;
+    }
+
+    private static void validate(String property, Set<String> fiatCodes) {
+        if (!NAME.equals(property) && !fiatCodes.contains(property.toUpperCase())) {
+            throw new OperationNotAllowedException("Sort property [" + property + "] is not supported.");
+        }
+    }
+
+    private static Comparator<CryptoCurrencyRate> resolve(Sort sort) {
+        Comparator<CryptoCurrencyRate> result = null;
+
+        for (Sort.Order order : sort) {
+            final Comparator<CryptoCurrencyRate> next = resolve(order);
+            result = result == null ? next : result.thenComparing(next);
+        }
+
+        // top-K selection is not stable, ties must not be left to it
+        return result.thenComparing(BY_ROW);
+    }
+
+    // property is already validated
+    private static Comparator<CryptoCurrencyRate> resolve(Sort.Order order) {
+        final String property = order.getProperty();
+
+        if (NAME.equals(property)) {
+            final Comparator<String> direction = order.isAscending() ? naturalOrder() : Comparator.reverseOrder();
+            return comparing(CryptoCurrencyRate::getName, nullsLast(direction));
+        }
+
+        return byFiat(property.toUpperCase(), order.isAscending());
+    }
+
+    /**
+     * Compares fixed-point rates in given fiat currency, so no comparison allocates. The fiat ordinal is looked up in the matrix of compared rate,
+     * because cached comparator outlives the snapshot it was created for.
+     */
+    private static Comparator<CryptoCurrencyRate> byFiat(String fiat, boolean ascending) {
+        return (o1, o2) -> {
+            final long rate1 = scaledRate(o1, fiat);
+            final long rate2 = scaledRate(o2, fiat);
+
+            // missing rates are always last regardless of direction
+            if (rate1 == RateMatrix.MISSING || rate2 == RateMatrix.MISSING) {
+                return Boolean.compare(rate1 == RateMatrix.MISSING, rate2 == RateMatrix.MISSING);
+            }
+
+            return ascending ? Long.compare(rate1, rate2) : Long.compare(rate2, rate1);
+        };
+    }
+
+    private static long scaledRate(CryptoCurrencyRate rate, String fiat) {
+        final int fiatOrdinal = rate.getMatrix().fiatOrdinal(fiat);
+        return fiatOrdinal < 0 ? RateMatrix.MISSING : rate.getScaledRate(fiatOrdinal);
+    }
+
+}
@@ -0,0 +1,83 @@
+package sk.glova.cryptowallet.domain.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Writes {@link CryptoCurrencyRate} directly from the fixed-point matrix row, without building intermediate maps or BigDecimals.
+ */
+public class CryptoCurrencyRateSerializer extends StdSerializer<CryptoCurrencyRate> {
+
+    // enough for sign, 19 digits and decimal point
+    private static final int MAX_NUMBER_LENGTH = 22;
+
+    public CryptoCurrencyRateSerializer() {
+        super(CryptoCurrencyRate.class);
+    }
+
+    @Override
+    public void serialize(CryptoCurrencyRate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        final RateMatrix matrix = value.getMatrix();
+        final int row = value.getRow();
+        final char[] buffer = new char[MAX_NUMBER_LENGTH];
+
+        gen.writeStartObject();
+        gen.writeStringField("name", matrix.getCrypto(row));
+        gen.writeObjectFieldStart("currencyRates");
+
+        final int fiatCount = value.getFiatCount();
+        for (int i = 0; i < fiatCount; i++) {
+            final int fiat = value.getFiatOrdinal(i);
+            final long scaled = matrix.getScaled(row, fiat);
+            if (scaled != RateMatrix.MISSING) {
+                gen.writeFieldName(matrix.getFiat(fiat));
+                final int start = format(scaled, buffer);
+                gen.writeNumber(buffer, start, buffer.length - start);
+            }
+        }
+
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Formats fixed-point number into the end of the buffer as plain decimal without trailing zeros.
+     *
+     * @return index of the first written character
+     */
+    static int format(long scaled, char[] buffer) {
+        final boolean negative = scaled < 0;
+        // Long.MIN_VALUE is reserved for MISSING, so negation can not overflow
+        long remaining = Math.abs(scaled);
+        int position = buffer.length;
+
+        // fraction digits, trailing zeros are skipped
+        boolean significant = false;
+        for (int i = 0; i < RateMatrix.SCALE; i++) {
+            final int digit = (int) (remaining % 10);
+            remaining /= 10;
+            if (digit != 0 || significant) {
+                buffer[--position] = (char) ('0' + digit);
+                significant = true;
+            }
+        }
+        if (significant) {
+            buffer[--position] = '.';
+        }
+
+        // integer digits
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        if (negative) {
+            buffer[--position] = '-';
+        }
+
+        return position;
+    }
+
+}
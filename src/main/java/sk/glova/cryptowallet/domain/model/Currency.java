@@ -2,18 +2,25 @@ package sk.glova.cryptowallet.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -21,17 +28,33 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
+// one holding per currency in a wallet, the index of the constraint serves holding lookups by wallet and code
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_currency_wallet_code", columnNames = {"wallet_id", "code"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Currency {
 
+    // decimal places of stored amounts (satoshi of BTC), amounts are always kept in this scale so cached and stored values are the same
+    public static final int AMOUNT_SCALE = 8;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    // ids are allocated in blocks (pooled optimizer), so bulk funding does not hit the sequence for every opened holding
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_seq")
+    @SequenceGenerator(name = "currency_seq", allocationSize = 50)
     private Long id;
 
     private String code;
 
+    @Column(precision = 38, scale = AMOUNT_SCALE)
     private BigDecimal amount;
 
+    // concurrent updates are detected on flush and retried by the service
+    @Version
+    private Long version;
+
+    // position of the latest ledger entry of the holding, incremented with every change of the amount
+    private long ledgerPosition;
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     private Wallet wallet;
@@ -0,0 +1,161 @@
+package sk.glova.cryptowallet.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+
+/**
+ * Immutable, versioned registry of supported crypto-currencies and fiat currencies. Codes are interned and kept in an open addressing table
+ * hashed case-insensitively, so resolving a user provided code is a constant time lookup which does not allocate an upper-cased copy of it.
+ */
+public final class CurrencyCatalog {
+
+    private final long version;
+    private final RateMatrix.Layout layout;
+    private final List<String> fiatCodes;
+    private final String[] codes;
+    private final boolean[] cryptos;
+    private final int mask;
+
+    private CurrencyCatalog(long version, RateMatrix.Layout layout) {
+        this.version = version;
+        this.layout = layout;
+        this.fiatCodes = List.copyOf(layout.getFiatCodes());
+
+        final int size = layout.getCryptoCodes().size() + layout.getFiatCodes().size();
+        // keep load factor below 0.5, so that probe sequences stay short
+        final int capacity = Integer.highestOneBit(Math.max(size, 1) * 4 - 1) << 1;
+        this.codes = new String[capacity];
+        this.cryptos = new boolean[capacity];
+        this.mask = capacity - 1;
+
+        layout.getCryptoCodes().forEach(code -> put(code, true));
+        layout.getFiatCodes().forEach(code -> put(code, false));
+    }
+
+    /**
+     * @param cryptos upper-case codes of supported crypto-currencies
+     * @param fiats upper-case codes of supported fiat currencies
+     */
+    public static CurrencyCatalog of(long version, List<String> cryptos, List<String> fiats) {
+        return new CurrencyCatalog(version, RateMatrix.Layout.of(cryptos, fiats));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return crypto-currencies and fiat currencies of this catalog with their rate matrix ordinals
+     */
+    @JsonIgnore
+    public RateMatrix.Layout getLayout() {
+        return layout;
+    }
+
+    // in the order of ordinals
+    public List<String> getCryptoCodes() {
+        return layout.getCryptoCodes();
+    }
+
+    // in the order of ordinals
+    public List<String> getFiatCodes() {
+        return fiatCodes;
+    }
+
+    /**
+     * @return interned upper-case code of given supported crypto-currency or null when it is not supported
+     */
+    public String findCrypto(String code) {
+        final int slot = slot(code);
+        return slot >= 0 && cryptos[slot] ? codes[slot] : null;
+    }
+
+    /**
+     * @return interned upper-case code of given supported fiat currency or null when it is not supported
+     */
+    public String findFiat(String code) {
+        final int slot = slot(code);
+        return slot >= 0 && !cryptos[slot] ? codes[slot] : null;
+    }
+
+    /**
+     * @return interned upper-case code of given supported currency or null when it is not supported
+     */
+    public String find(String code) {
+        final int slot = slot(code);
+        return slot >= 0 ? codes[slot] : null;
+    }
+
+    public boolean isCrypto(String code) {
+        return findCrypto(code) != null;
+    }
+
+    public boolean isFiat(String code) {
+        return findFiat(code) != null;
+    }
+
+    /**
+     * @return interned upper-case code of given supported crypto-currency
+     * @throws OperationNotAllowedException when it is not supported
+     */
+    public String requireCrypto(String code) throws OperationNotAllowedException {
+        final String canonical = findCrypto(code);
+        if (canonical == null) {
+            throw notSupported(code);
+        }
+        return canonical;
+    }
+
+    /**
+     * @return interned upper-case code of given supported fiat currency
+     * @throws OperationNotAllowedException when it is not supported
+     */
+    public String requireFiat(String code) throws OperationNotAllowedException {
+        final String canonical = findFiat(code);
+        if (canonical == null) {
+            throw notSupported(code);
+        }
+        return canonical;
+    }
+
+    private static OperationNotAllowedException notSupported(String code) {
+        return new OperationNotAllowedException("Currency [" + (code == null ? null : code.toUpperCase()) + "] is not supported.");
+    }
+
+    private void put(String code, boolean crypto) {
+        int slot = hash(code) & mask;
+        while (codes[slot] != null) {
+            if (codes[slot].equals(code)) {
+                throw new IllegalArgumentException("Currency [" + code + "] is listed more than once.");
+            }
+            slot = (slot + 1) & mask;
+        }
+        codes[slot] = code;
+        cryptos[slot] = crypto;
+    }
+
+    private int slot(String code) {
+        if (code == null) {
+            return -1;
+        }
+        int slot = hash(code) & mask;
+        while (codes[slot] != null) {
+            if (codes[slot].equalsIgnoreCase(code)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(String code) {
+        int hash = 0;
+        for (int i = 0; i < code.length(); i++) {
+            hash = 31 * hash + Character.toUpperCase(code.charAt(i));
+        }
+        // spread higher bits into the masked ones
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,14 @@
+package sk.glova.cryptowallet.domain.model;
+
+import lombok.Value;
+
+/**
+ * Direction of a conversion, amount in currencyFrom multiplied by the rate of the pair gives amount in currencyTo.
+ */
+@Value
+public class CurrencyPair {
+
+    String currencyFrom;
+    String currencyTo;
+
+}
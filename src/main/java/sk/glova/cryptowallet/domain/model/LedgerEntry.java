@@ -0,0 +1,79 @@
+package sk.glova.cryptowallet.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * One change of a holding amount. Entries are only appended (in the transaction changing the holding) and never updated or deleted, not even
+ * with their wallet, so the amount of every holding can be rebuilt by folding its entries in the order of their positions.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+    // the tail of a holding after its snapshot
+    @Index(name = "uk_ledger_entry_holding_position", columnList = "holdingId, position", unique = true),
+    // history of a wallet and the replay of a chunk of wallets
+    @Index(name = "ix_ledger_entry_wallet", columnList = "walletId")
+})
+@Immutable
+public class LedgerEntry {
+
+    public enum Type {
+        ADD,
+        TRANSFER_OUT,
+        TRANSFER_IN
+    }
+
+    @Id
+    // ids are allocated in blocks (pooled optimizer), every add and transfer appends at least one entry
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    // plain IDs instead of associations, entries outlive deleted wallets
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long holdingId;
+
+    @Column(nullable = false)
+    private String code;
+
+    // 1, 2, ... within the holding, holdings are optimistically locked so the positions of committed entries never have gaps
+    @Column(nullable = false)
+    private long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    // signed change of the holding amount
+    @Column(nullable = false, precision = 38, scale = Currency.AMOUNT_SCALE)
+    private BigDecimal amount;
+
+    // the other wallet of a transfer
+    private Long counterpartyWalletId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+}
@@ -0,0 +1,223 @@
+package sk.glova.cryptowallet.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable crypto x fiat rate matrix. Rates are stored as fixed-point longs (scaled by 10^{@value #SCALE}) in one flat primitive array indexed
+ * by currency ordinals of the {@link Layout}, so reading a rate neither boxes nor allocates.
+ */
+public final class RateMatrix {
+
+    // number of decimal places kept for every rate
+    public static final int SCALE = 8;
+
+    // marks rate which was not provided by the external API
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private final Layout layout;
+    private final long[] values;
+    private final boolean[] presentRows;
+
+    private RateMatrix(Layout layout, long[] values, boolean[] presentRows) {
+        this.layout = layout;
+        this.values = values;
+        this.presentRows = presentRows;
+    }
+
+    public static Builder builder(Layout layout) {
+        return new Builder(layout);
+    }
+
+    public static BigDecimal toDecimal(long scaled) {
+        return scaled == MISSING ? null : BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public int getCryptoCount() {
+        return layout.cryptos.length;
+    }
+
+    public int getFiatCount() {
+        return layout.fiats.length;
+    }
+
+    public String getCrypto(int cryptoOrdinal) {
+        return layout.cryptos[cryptoOrdinal];
+    }
+
+    public String getFiat(int fiatOrdinal) {
+        return layout.fiats[fiatOrdinal];
+    }
+
+    /**
+     * @return ordinal of given crypto-currency or -1 when it is not part of the matrix
+     */
+    public int cryptoOrdinal(String crypto) {
+        return layout.cryptoOrdinal(crypto);
+    }
+
+    /**
+     * @return ordinal of given fiat currency or -1 when it is not part of the matrix
+     */
+    public int fiatOrdinal(String fiat) {
+        return layout.fiatOrdinal(fiat);
+    }
+
+    /**
+     * @return rate scaled by 10^{@value #SCALE} or {@link #MISSING}
+     */
+    public long getScaled(int cryptoOrdinal, int fiatOrdinal) {
+        return values[cryptoOrdinal * layout.fiats.length + fiatOrdinal];
+    }
+
+    /**
+     * @return rate or null when it is missing
+     */
+    public BigDecimal get(int cryptoOrdinal, int fiatOrdinal) {
+        return toDecimal(getScaled(cryptoOrdinal, fiatOrdinal));
+    }
+
+    /**
+     * @return rate or null when it is missing or any of the currencies is not part of the matrix
+     */
+    public BigDecimal get(String crypto, String fiat) {
+        final int cryptoOrdinal = cryptoOrdinal(crypto);
+        final int fiatOrdinal = fiatOrdinal(fiat);
+        return cryptoOrdinal < 0 || fiatOrdinal < 0 ? null : get(cryptoOrdinal, fiatOrdinal);
+    }
+
+    /**
+     * @return true when the external API provided at least one rate of given crypto-currency
+     */
+    public boolean hasRow(int cryptoOrdinal) {
+        return presentRows[cryptoOrdinal];
+    }
+
+    /**
+     * Ordered crypto-currency and fiat codes of the matrix with their ordinals. Layout is shared by all snapshots as long as the supported
+     * currencies do not change.
+     */
+    public static final class Layout {
+
+        private final String[] cryptos;
+        private final String[] fiats;
+        private final Map<String, Integer> cryptoOrdinals;
+        private final Map<String, Integer> fiatOrdinals;
+        private final List<String> cryptoCodes;
+        private final Set<String> fiatCodes;
+
+        private Layout(String[] cryptos, String[] fiats) {
+            this.cryptos = cryptos;
+            this.fiats = fiats;
+            this.cryptoOrdinals = ordinals(cryptos);
+            this.fiatOrdinals = ordinals(fiats);
+            this.cryptoCodes = Collections.unmodifiableList(Arrays.asList(cryptos));
+            this.fiatCodes = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(fiats)));
+        }
+
+        public static Layout of(List<String> cryptos, List<String> fiats) {
+            return new Layout(intern(cryptos), intern(fiats));
+        }
+
+        // in the order of ordinals
+        public List<String> getCryptoCodes() {
+            return cryptoCodes;
+        }
+
+        // in the order of ordinals
+        public Set<String> getFiatCodes() {
+            return fiatCodes;
+        }
+
+        /**
+         * @return ordinal of given crypto-currency or -1 when it is not part of the layout
+         */
+        public int cryptoOrdinal(String crypto) {
+            final Integer ordinal = cryptoOrdinals.get(crypto);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        /**
+         * @return ordinal of given fiat currency or -1 when it is not part of the layout
+         */
+        public int fiatOrdinal(String fiat) {
+            final Integer ordinal = fiatOrdinals.get(fiat);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        private static String[] intern(List<String> codes) {
+            return codes.stream().map(String::intern).toArray(String[]::new);
+        }
+
+        private static Map<String, Integer> ordinals(String[] codes) {
+            final Map<String, Integer> ordinals = new HashMap<>(codes.length * 2);
+            for (int i = 0; i < codes.length; i++) {
+                ordinals.put(codes[i], i);
+            }
+            return Collections.unmodifiableMap(ordinals);
+        }
+
+    }
+
+    public static final class Builder {
+
+        private final Layout layout;
+        private final long[] values;
+        private final boolean[] presentRows;
+
+        private Builder(Layout layout) {
+            this.layout = layout;
+            this.values = new long[layout.cryptos.length * layout.fiats.length];
+            this.presentRows = new boolean[layout.cryptos.length];
+            Arrays.fill(values, MISSING);
+        }
+
+        /**
+         * Sets the rate, unknown currencies and rates not representable in fixed-point are ignored.
+         *
+         * @return true when the rate was set
+         */
+        public boolean set(String crypto, String fiat, BigDecimal rate) {
+            final Integer cryptoOrdinal = layout.cryptoOrdinals.get(crypto);
+            final Integer fiatOrdinal = layout.fiatOrdinals.get(fiat);
+
+            if (cryptoOrdinal == null || fiatOrdinal == null || rate == null) {
+                return false;
+            }
+
+            try {
+                final long scaled = rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                return set(cryptoOrdinal, fiatOrdinal, scaled);
+            } catch (ArithmeticException ex) {
+                return false;
+            }
+        }
+
+        public boolean set(int cryptoOrdinal, int fiatOrdinal, long scaled) {
+            if (scaled == MISSING) {
+                return false;
+            }
+
+            values[cryptoOrdinal * layout.fiats.length + fiatOrdinal] = scaled;
+            presentRows[cryptoOrdinal] = true;
+            return true;
+        }
+
+        public RateMatrix build() {
+            return new RateMatrix(layout, values.clone(), presentRows.clone());
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package sk.glova.cryptowallet.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Immutable view of all crypto x fiat rates fetched from the external API at one point in time.
+ */
+@Getter
+@Builder
+public class RateSnapshot {
+
+    // monotonically increasing number, incremented on every successful refresh
+    private final long version;
+
+    private final Instant fetchedAt;
+
+    private final RateMatrix matrix;
+
+    // restored from rate history at startup instead of fetched, its age includes the downtime of the application
+    private final boolean restored;
+
+    public Duration getAge() {
+        return Duration.between(fetchedAt, Instant.now());
+    }
+
+}
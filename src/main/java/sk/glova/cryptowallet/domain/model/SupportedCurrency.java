@@ -1,15 +1,22 @@
 package sk.glova.cryptowallet.domain.model;
 
+import java.util.regex.Pattern;
+import javax.persistence.Column;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Getter
 @Setter
@@ -18,12 +25,22 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table
+@Cacheable
+// currencies are only added and removed, never updated
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class SupportedCurrency {
 
+    // codes are sent to the external api as they are, so only plain alphanumeric codes are accepted
+    public static final Pattern CODE_PATTERN = Pattern.compile("[A-Z0-9]{2,10}");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    // ids are allocated in blocks (pooled optimizer), so seeding the catalog does not hit the sequence for every row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "supported_currency_seq")
+    @SequenceGenerator(name = "supported_currency_seq", allocationSize = 50)
     private Long id;
 
+    @Column(nullable = false, unique = true)
     private String code;
 
     private boolean isCryptoCurrency;
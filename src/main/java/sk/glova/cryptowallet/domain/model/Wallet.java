@@ -1,20 +1,29 @@
 package sk.glova.cryptowallet.domain.model;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 import javax.persistence.CascadeType;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.MapKey;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 @Getter
 @Setter
@@ -22,22 +31,35 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
+// names are checked for uniqueness on every creation, singly or for a whole bulk
+@Table(indexes = @Index(name = "ix_wallet_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // TODO add @Validation here and in Wallet (https://www.baeldung.com/spring-boot-bean-validation)
 public class Wallet {
 
     // TODO use org.hibernate.id.UUIDGenerator (https://thorben-janssen.com/generate-uuids-primary-keys-hibernate/)
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    // ids are allocated in blocks (pooled optimizer), so bulk creation does not hit the sequence for every wallet
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", allocationSize = 50)
     private Long id;
 
     private String name;
 
+    // concurrent updates are detected on flush and retried by the service
+    @Version
+    private Long version;
+
+    // holdings keyed by currency code, extra lazy so that a single holding is looked up (or added) without loading all of them
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Set<Currency> currencies = new HashSet<>();
+    @MapKey(name = "code")
+    @LazyCollection(LazyCollectionOption.EXTRA)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Map<String, Currency> holdings = new HashMap<>();
 
     public void addCurrency(Currency currency) {
-        currencies.add(currency);
+        holdings.put(currency.getCode(), currency);
         currency.setWallet(this);
     }
 
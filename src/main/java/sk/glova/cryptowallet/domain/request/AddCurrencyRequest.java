@@ -0,0 +1,20 @@
+package sk.glova.cryptowallet.domain.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AddCurrencyRequest {
+
+    private String code;
+
+    private boolean cryptoCurrency;
+
+}
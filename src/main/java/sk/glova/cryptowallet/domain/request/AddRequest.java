@@ -13,5 +13,7 @@ public class AddRequest {
     private String fiatCurrencyFrom;
     private String cryptoCurrencyTo;
     private BigDecimal amount;
+    // maximal tolerated age of cached rates in milliseconds, default tolerance is used when not provided
+    private Long maxRateAge;
 
 }
@@ -0,0 +1,23 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferItem {
+
+    private Long sourceWalletId;
+    private String cryptoCurrencyFrom;
+    private String cryptoCurrencyTo;
+    private BigDecimal amount;
+    private Long destinationWalletId;
+
+}
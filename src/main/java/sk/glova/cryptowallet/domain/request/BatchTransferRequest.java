@@ -0,0 +1,30 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferRequest {
+
+    public enum Mode {
+        // the first rejected transfer rolls back the whole batch
+        ATOMIC,
+        // rejected transfers are reported, the rest of the batch is committed
+        PER_ITEM
+    }
+
+    private Mode mode;
+    // applied in the order of the list, so a transfer may spend what an earlier one credited
+    private List<BatchTransferItem> transfers;
+    // maximal tolerated age of cached rates in milliseconds, default tolerance is used when not provided
+    private Long maxRateAge;
+
+}
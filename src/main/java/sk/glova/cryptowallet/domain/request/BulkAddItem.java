@@ -0,0 +1,22 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAddItem {
+
+    private Long walletId;
+    private String fiatCurrencyFrom;
+    private String cryptoCurrencyTo;
+    private BigDecimal amount;
+
+}
@@ -0,0 +1,22 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAddRequest {
+
+    // one wallet may be funded by more additions, also in different currencies
+    private List<BulkAddItem> additions;
+    // maximal tolerated age of cached rates in milliseconds, default tolerance is used when not provided
+    private Long maxRateAge;
+
+}
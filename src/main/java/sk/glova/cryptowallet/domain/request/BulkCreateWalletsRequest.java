@@ -0,0 +1,20 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCreateWalletsRequest {
+
+    // names of created wallets, all of them have to be unique
+    private List<String> names;
+
+}
@@ -0,0 +1,40 @@
+package sk.glova.cryptowallet.domain.request;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Crypto-currencies and fiat currencies requested by the client, empty set means all of them. Codes are case-insensitive.
+ */
+@Getter
+@EqualsAndHashCode
+public class RateFilter {
+
+    public static final RateFilter NONE = new RateFilter(Collections.emptySet(), Collections.emptySet());
+
+    private final Set<String> symbols;
+    private final Set<String> fiats;
+
+    private RateFilter(Set<String> symbols, Set<String> fiats) {
+        this.symbols = symbols;
+        this.fiats = fiats;
+    }
+
+    public static RateFilter of(Set<String> symbols, Set<String> fiats) {
+        return new RateFilter(normalize(symbols), normalize(fiats));
+    }
+
+    private static Set<String> normalize(Set<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        final Set<String> normalized = new TreeSet<>();
+        codes.forEach(code -> normalized.add(code.trim().toUpperCase()));
+        return Collections.unmodifiableSet(normalized);
+    }
+
+}
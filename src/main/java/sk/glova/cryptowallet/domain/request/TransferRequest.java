@@ -14,5 +14,7 @@ public class TransferRequest {
     private String cryptoCurrencyTo;
     private BigDecimal amount;
     private Long destinationWalletId;
+    // maximal tolerated age of cached rates in milliseconds, default tolerance is used when not provided
+    private Long maxRateAge;
 
 }
@@ -0,0 +1,22 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class BalanceMismatch {
+
+    Long walletId;
+    Long holdingId;
+    String code;
+    BigDecimal storedAmount;
+    BigDecimal replayedAmount;
+    long storedPosition;
+    // lower than the stored position when entries are missing, such holding is never overwritten
+    long replayedPosition;
+
+}
@@ -0,0 +1,18 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class BatchTransferResponse {
+
+    int applied;
+    int rejected;
+    // one result per requested transfer, in the order of the request
+    List<TransferResult> results;
+
+}
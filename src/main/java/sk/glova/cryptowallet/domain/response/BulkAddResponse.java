@@ -0,0 +1,16 @@
+package sk.glova.cryptowallet.domain.response;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class BulkAddResponse {
+
+    int added;
+    // number of distinct funded wallets
+    int wallets;
+
+}
@@ -0,0 +1,17 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class BulkCreateWalletsResponse {
+
+    int created;
+    // IDs of created wallets, in the order of requested names
+    List<Long> walletIds;
+
+}
@@ -0,0 +1,21 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class Candle {
+
+    // start of the interval
+    private Instant time;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    // number of rate points in the interval
+    private int count;
+
+}
@@ -0,0 +1,17 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class HoldingResponse {
+
+    Long id;
+    String code;
+    BigDecimal amount;
+
+}
@@ -0,0 +1,24 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import sk.glova.cryptowallet.domain.model.LedgerEntry;
+
+@Value
+@Builder
+@Jacksonized
+public class LedgerEntryResponse {
+
+    Long id;
+    LedgerEntry.Type type;
+    String code;
+    // signed change of the holding amount
+    BigDecimal amount;
+    long position;
+    Long counterpartyWalletId;
+    Instant createdAt;
+
+}
@@ -0,0 +1,26 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class LedgerReplayReport {
+
+    boolean fromSnapshots;
+    boolean applied;
+    long wallets;
+    long holdings;
+    // folded entries, only the tails after snapshots when replayed from them
+    long entries;
+    long mismatches;
+    // holdings overwritten by the replayed amounts
+    long corrected;
+    // first mismatches only, their total count is above
+    List<BalanceMismatch> firstMismatches;
+    long elapsedMillis;
+
+}
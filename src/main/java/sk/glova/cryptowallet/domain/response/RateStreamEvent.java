@@ -0,0 +1,18 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RateStreamEvent {
+
+    private long version;
+    private Instant fetchedAt;
+    // crypto-currency code -> (fiat currency code -> rate), contains only changed rates for update events
+    private Map<String, Map<String, BigDecimal>> rates;
+
+}
@@ -0,0 +1,20 @@
+package sk.glova.cryptowallet.domain.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Page of rates serialized to JSON, ready to be written to the response as it is.
+ */
+@Getter
+@Builder
+public class SerializedRatePage {
+
+    // version of the rate snapshot the page was built from
+    private final long version;
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+}
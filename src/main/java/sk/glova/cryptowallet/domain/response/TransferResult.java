@@ -0,0 +1,22 @@
+package sk.glova.cryptowallet.domain.response;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class TransferResult {
+
+    public enum Status {
+        APPLIED, REJECTED
+    }
+
+    // position of the transfer in the request
+    int index;
+    Status status;
+    // reason of rejection
+    String message;
+
+}
@@ -0,0 +1,21 @@
+package sk.glova.cryptowallet.domain.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Read-only view of a wallet with its holdings, it is detached from the persistence context.
+ */
+@Value
+@Builder
+@Jacksonized
+public class WalletResponse {
+
+    Long id;
+    String name;
+    // holdings ordered by currency code
+    List<HoldingResponse> currencies;
+
+}
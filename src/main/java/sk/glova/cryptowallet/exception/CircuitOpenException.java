@@ -0,0 +1,12 @@
+package sk.glova.cryptowallet.exception;
+
+/**
+ * Custom Exception when call is rejected because circuit breaker is open
+ */
+public class CircuitOpenException extends RateUnavailableException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+
+}
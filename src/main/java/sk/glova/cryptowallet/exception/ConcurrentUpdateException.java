@@ -0,0 +1,12 @@
+package sk.glova.cryptowallet.exception;
+
+/**
+ * Custom Exception when wallet could not be updated because of concurrent updates of the same wallet, even after retries
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,12 @@
+package sk.glova.cryptowallet.exception;
+
+/**
+ * Custom Exception when rates can not be provided - external API is not available and there is no rate fresh enough to fall back to
+ */
+public class RateUnavailableException extends RuntimeException {
+
+    public RateUnavailableException(String message) {
+        super(message);
+    }
+
+}
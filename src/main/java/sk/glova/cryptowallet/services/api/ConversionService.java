@@ -0,0 +1,32 @@
+package sk.glova.cryptowallet.services.api;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import sk.glova.cryptowallet.domain.model.CurrencyPair;
+
+public interface ConversionService {
+
+    /**
+     * Returns conversion rate from one currency into another (amount in currencyFrom multiplied by the rate gives amount in currencyTo). The rate
+     * is derived from the cached rate snapshot - fiat to crypto directly, crypto to crypto as a cross rate through a common fiat currency. The
+     * external API is called only when the snapshot is older than given tolerance or when the pair can not be derived from the snapshot.
+     *
+     * @param currencyFrom currency code to convert from
+     * @param currencyTo currency code to convert into
+     * @param maxRateAge maximal tolerated age of the snapshot in milliseconds, null means default tolerance
+     * @return conversion rate
+     */
+    BigDecimal getConversionRate(String currencyFrom, String currencyTo, Long maxRateAge);
+
+    /**
+     * Returns conversion rates of all given pairs the same way as {@link #getConversionRate(String, String, Long)}, but every rate is derived from
+     * the same rate snapshot, so rates used together (e.g. by one batch of transfers) are consistent with each other.
+     *
+     * @param pairs pairs to convert, duplicates are resolved once
+     * @param maxRateAge maximal tolerated age of the snapshot in milliseconds, null means default tolerance
+     * @return conversion rate of every given pair
+     */
+    Map<CurrencyPair, BigDecimal> getConversionRates(Collection<CurrencyPair> pairs, Long maxRateAge);
+
+}
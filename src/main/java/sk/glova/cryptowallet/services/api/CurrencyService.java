@@ -1,20 +1,32 @@
 package sk.glova.cryptowallet.services.api;
 
-import java.util.List;
-import sk.glova.cryptowallet.domain.model.SupportedCurrency;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+import sk.glova.cryptowallet.domain.request.AddCurrencyRequest;
+import sk.glova.cryptowallet.exception.EntityNotFoundException;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
 
 public interface CurrencyService {
 
     /**
-     * Returns all supported currencies. The result is cached.
-     * @return list of SupportedCurrency objects
+     * Returns current catalog of supported currencies. It is loaded from DB once and replaced atomically whenever supported currencies change.
+     * @return immutable catalog of supported crypto-currencies and fiat currencies
      */
-    List<SupportedCurrency> getAllSupportedCurrencies();
+    CurrencyCatalog getCatalog();
 
     /**
-     * Returns all supported crypto-currencies. The result is cached.
-     * @return list of SupportedCurrency objects
+     * Adds new supported currency and reloads the catalog.
+     * @param request code and kind of the currency
+     * @return reloaded catalog
+     * @throws OperationNotAllowedException when code is invalid or already supported
      */
-    List<SupportedCurrency> getAllSupportedCryptoCurrencies();
+    CurrencyCatalog addCurrency(AddCurrencyRequest request) throws OperationNotAllowedException;
+
+    /**
+     * Removes supported currency and reloads the catalog. Wallets keep their amounts in removed currency.
+     * @param code code of the currency
+     * @return reloaded catalog
+     * @throws EntityNotFoundException when currency is not supported
+     */
+    CurrencyCatalog removeCurrency(String code) throws EntityNotFoundException;
 
 }
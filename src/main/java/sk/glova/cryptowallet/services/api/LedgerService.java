@@ -0,0 +1,53 @@
+package sk.glova.cryptowallet.services.api;
+
+import java.math.BigDecimal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import sk.glova.cryptowallet.domain.model.Currency;
+import sk.glova.cryptowallet.domain.model.LedgerEntry;
+import sk.glova.cryptowallet.domain.response.LedgerEntryResponse;
+import sk.glova.cryptowallet.domain.response.LedgerReplayReport;
+import sk.glova.cryptowallet.exception.EntityNotFoundException;
+
+public interface LedgerService {
+
+    /**
+     * Appends the entry of given change of the holding amount in the current transaction and moves the ledger position of the holding. The
+     * holding has to be persistent already, so that its ID is known.
+     *
+     * @param holding changed holding
+     * @param type type of the change
+     * @param amount signed change of the amount
+     * @param counterpartyWalletId the other wallet of a transfer, null otherwise
+     */
+    void record(Currency holding, LedgerEntry.Type type, BigDecimal amount, Long counterpartyWalletId);
+
+    /**
+     * Returns ledger entries of the wallet with given ID, the newest first when no sorting is requested.
+     *
+     * @param walletId wallet ID
+     * @param pageable pageable object
+     * @return page of ledger entries
+     * @throws EntityNotFoundException When wallet with given ID does not exist.
+     */
+    Page<LedgerEntryResponse> getEntries(Long walletId, Pageable pageable) throws EntityNotFoundException;
+
+    /**
+     * Folds entries appended since the latest snapshot of every holding (which has at least configured number of them) into a new snapshot.
+     * Concurrent calls are serialized.
+     *
+     * @return number of snapshotted holdings
+     */
+    int takeSnapshots();
+
+    /**
+     * Rebuilds amounts of all holdings by folding their ledger entries, wallets of every chunk are folded in parallel. Entries appended after a
+     * holding was read are left for the next replay, so the replay does not block (nor is disturbed by) concurrent adds and transfers.
+     *
+     * @param fromSnapshots start every holding from its latest snapshot and fold only the tail, otherwise from the first entry
+     * @param apply overwrite amounts of holdings which differ from the replayed ones, otherwise they are only reported
+     * @return report of the replay
+     */
+    LedgerReplayReport replay(boolean fromSnapshots, boolean apply);
+
+}
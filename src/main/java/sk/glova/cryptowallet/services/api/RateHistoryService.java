@@ -0,0 +1,38 @@
+package sk.glova.cryptowallet.services.api;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.response.Candle;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+
+public interface RateHistoryService {
+
+    /**
+     * Returns OHLC candles of the rate of given pair. Intervals without any rate are omitted.
+     *
+     * @param crypto crypto-currency code
+     * @param fiat fiat currency code
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @param resolution length of one candle
+     * @return candles in chronological order
+     * @throws OperationNotAllowedException when:
+     *     <ul>
+     *         <li>currency or cryptocurrency is not supported</li>
+     *         <li>time range or resolution is not valid</li>
+     *         <li>time range contains too many candles of given resolution</li>
+     *     </ul>
+     */
+    List<Candle> getCandles(String crypto, String fiat, Instant from, Instant to, Duration resolution) throws OperationNotAllowedException;
+
+    /**
+     * Builds snapshot of the last known rates stored on disk, so rates can be served before the external API is contacted.
+     *
+     * @param version version of the created snapshot
+     * @return snapshot or null when there is no stored rate
+     */
+    RateSnapshot restoreLastSnapshot(long version);
+
+}
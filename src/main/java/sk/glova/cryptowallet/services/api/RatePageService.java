@@ -0,0 +1,26 @@
+package sk.glova.cryptowallet.services.api;
+
+import org.springframework.data.domain.Pageable;
+import sk.glova.cryptowallet.domain.request.RateFilter;
+import sk.glova.cryptowallet.domain.response.SerializedRatePage;
+
+public interface RatePageService {
+
+    /**
+     * Returns version of the current rate snapshot, i.e. version of the page {@link #getPage(Pageable)} would return now.
+     *
+     * @return current snapshot version
+     */
+    long getCurrentVersion();
+
+    /**
+     * Returns page of supported cryptocurrencies with their rates narrowed by given filter, serialized to JSON (and gzip). Pages are cached
+     * per snapshot version, filter, page, size and sort.
+     *
+     * @param filter requested crypto-currencies and fiat currencies
+     * @param pageable pageable object
+     * @return serialized page
+     */
+    SerializedRatePage getPage(RateFilter filter, Pageable pageable);
+
+}
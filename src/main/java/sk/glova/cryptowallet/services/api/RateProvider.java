@@ -0,0 +1,28 @@
+package sk.glova.cryptowallet.services.api;
+
+import java.math.BigDecimal;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+
+/**
+ * Source of market rates. Implementation is selected by `rates.provider` property.
+ */
+public interface RateProvider {
+
+    /**
+     * Returns rates of all crypto-currencies of given layout in all its fiat currencies. Rates not known by the provider stay missing.
+     *
+     * @param layout crypto-currencies and fiat currencies to fetch
+     * @return matrix of rates in given layout
+     */
+    RateMatrix getRates(RateMatrix.Layout layout);
+
+    /**
+     * Returns conversion rate of a single pair, both currencies can be either fiat or crypto.
+     *
+     * @param currencyFrom currency code to convert from
+     * @param currencyTo currency code to convert into
+     * @return conversion rate, null when the provider does not know the pair
+     */
+    BigDecimal getRate(String currencyFrom, String currencyTo);
+
+}
@@ -3,14 +3,19 @@ package sk.glova.cryptowallet.services.api;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import sk.glova.cryptowallet.domain.model.CryptoCurrencyRate;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.request.RateFilter;
 
 public interface RateService {
 
     /**
-     * Returns all supported cryptocurrencies with their rates. Result is paginated with sorting capabilities.
+     * Returns cryptocurrencies of given snapshot with their rates, narrowed to the crypto-currencies and fiat currencies of given filter.
+     * Result is paginated with sorting capabilities, applied after filtering.
+     * @param snapshot rate snapshot
+     * @param filter requested crypto-currencies and fiat currencies
      * @param pageable pageable object
      * @return page of cryptoCurrencyRate objects
      */
-    Page<CryptoCurrencyRate> getRates(Pageable pageable);
+    Page<CryptoCurrencyRate> getRates(RateSnapshot snapshot, RateFilter filter, Pageable pageable);
 
 }
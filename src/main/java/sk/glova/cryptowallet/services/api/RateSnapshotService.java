@@ -0,0 +1,22 @@
+package sk.glova.cryptowallet.services.api;
+
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+
+public interface RateSnapshotService {
+
+    /**
+     * Returns the latest rate snapshot. Never waits on the external API when a snapshot is already present - if the snapshot is older than the
+     * configured stale threshold, a background refresh is triggered and the stale snapshot is returned. Only the very first call (before any
+     * snapshot was fetched) loads the rates synchronously.
+     *
+     * @return latest rate snapshot
+     * @throws sk.glova.cryptowallet.exception.RateUnavailableException when there is no snapshot younger than the configured staleness bound
+     */
+    RateSnapshot getSnapshot();
+
+    /**
+     * Fetches rates from the external API and atomically replaces the current snapshot. Concurrent refreshes are collapsed into one.
+     */
+    void refresh();
+
+}
@@ -0,0 +1,18 @@
+package sk.glova.cryptowallet.services.api;
+
+import java.util.Set;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface RateStreamService {
+
+    /**
+     * Subscribes to rate changes. Subscriber receives the current rates as the first "snapshot" event and then "update" events containing only
+     * changed rates. All subscribers are served from the single background poll of the external API.
+     *
+     * @param symbols crypto-currency codes to receive, empty means all
+     * @param fiats fiat currency codes to receive, empty means all
+     * @return emitter streaming the events
+     */
+    SseEmitter subscribe(Set<String> symbols, Set<String> fiats);
+
+}
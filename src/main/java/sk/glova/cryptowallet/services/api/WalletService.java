@@ -3,10 +3,16 @@ package sk.glova.cryptowallet.services.api;
 import javassist.NotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import sk.glova.cryptowallet.domain.model.Wallet;
 import sk.glova.cryptowallet.domain.request.AddRequest;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.request.BulkCreateWalletsRequest;
 import sk.glova.cryptowallet.domain.request.TransferRequest;
 import sk.glova.cryptowallet.domain.request.UpsertWalletRequest;
+import sk.glova.cryptowallet.domain.response.BatchTransferResponse;
+import sk.glova.cryptowallet.domain.response.BulkAddResponse;
+import sk.glova.cryptowallet.domain.response.BulkCreateWalletsResponse;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
 import sk.glova.cryptowallet.exception.EntityNotFoundException;
 import sk.glova.cryptowallet.exception.OperationNotAllowedException;
 
@@ -24,7 +30,21 @@ public interface WalletService {
      *         <li>provided name is null or empty string</li>
      *     </ul>
      */
-    Wallet createWallet(UpsertWalletRequest request) throws OperationNotAllowedException;
+    WalletResponse createWallet(UpsertWalletRequest request) throws OperationNotAllowedException;
+
+    /**
+     * Creates empty wallets with given names in one transaction. Uniqueness of all names is checked by set-based queries and wallets are
+     * inserted in JDBC batches.
+     *
+     * @param request names of created wallets
+     * @return IDs of created wallets
+     * @throws OperationNotAllowedException when:
+     *     <ul>
+     *         <li>no name is provided or more names than allowed</li>
+     *         <li>any of names is null, empty string, provided more than once or already in use (nothing is created then)</li>
+     *     </ul>
+     */
+    BulkCreateWalletsResponse createWallets(BulkCreateWalletsRequest request) throws OperationNotAllowedException;
 
     /**
      * Updates the wallet with given ID. Values are taken from given upsert request DTO.
@@ -42,13 +62,13 @@ public interface WalletService {
     void updateWallet(Long walletId, UpsertWalletRequest request) throws OperationNotAllowedException, EntityNotFoundException;
 
     /**
-     * Returns the wallet with given ID.
+     * Returns the wallet with given ID with its holdings.
      *
      * @param walletId wallet ID
-     * @return object with given ID
+     * @return detached view of the wallet with given ID
      * @throws EntityNotFoundException When wallet with given ID does not exist.
      */
-    Wallet getWallet(Long walletId) throws EntityNotFoundException;
+    WalletResponse getWallet(Long walletId) throws EntityNotFoundException;
 
     /**
      * Deletes the wallet with given ID.
@@ -69,6 +89,21 @@ public interface WalletService {
      */
     void add(Long walletId, AddRequest addRequest) throws OperationNotAllowedException, EntityNotFoundException;
 
+    /**
+     * Adds currencies to many wallets in one transaction, like {@link #add(Long, AddRequest)} does for one. Every distinct currency pair is
+     * converted by a rate derived from the same rate snapshot, wallets are loaded with their holdings in chunks and updated in JDBC batches.
+     *
+     * @param request additions into wallets
+     * @return number of applied additions and funded wallets
+     * @throws OperationNotAllowedException when:
+     *     <ul>
+     *         <li>no addition is provided or more additions than allowed</li>
+     *         <li>currency or cryptocurrency of any addition is not supported or its amount is not positive (nothing is added then)</li>
+     *     </ul>
+     * @throws EntityNotFoundException When any of wallets does not exist (nothing is added then).
+     */
+    BulkAddResponse addToWallets(BulkAddRequest request) throws OperationNotAllowedException, EntityNotFoundException;
+
     /**
      * Transfers currency from wallet with given ID. It converts currencyFrom into currencyTo according current rate. It decrements wallet from which
      * payment is outgoing and increment wallet to which payment is incoming (if currency exist in wallet - given amount increments the previous one,
@@ -86,11 +121,25 @@ public interface WalletService {
     void transfer(Long walletId, TransferRequest transferRequest) throws NotFoundException, OperationNotAllowedException, EntityNotFoundException;
 
     /**
-     * Returns all wallets. Result is paginated with sorting capabilities.
+     * Applies given transfers in one transaction, in the order of the request. Every involved wallet is loaded with its holdings by one query and
+     * every distinct currency pair is converted by a rate derived from the same rate snapshot.
+     *
+     * @param request batch of transfers with the mode of failure handling
+     * @return outcome of every transfer
+     * @throws OperationNotAllowedException when:
+     *     <ul>
+     *         <li>batch is empty or contains more transfers than allowed</li>
+     *         <li>any of transfers is rejected in ATOMIC mode (nothing is applied then)</li>
+     *     </ul>
+     */
+    BatchTransferResponse transferBatch(BatchTransferRequest request) throws OperationNotAllowedException;
+
+    /**
+     * Returns all wallets with their holdings. Result is paginated with sorting capabilities. Holdings of the whole page are loaded by one query.
      *
      * @param pageable pageable object
-     * @return page of wallet objects
+     * @return page of detached wallet views
      */
-    Page<Wallet> getWallets(Pageable pageable);
+    Page<WalletResponse> getWallets(Pageable pageable);
 
 }
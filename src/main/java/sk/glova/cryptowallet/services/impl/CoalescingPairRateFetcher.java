@@ -0,0 +1,122 @@
+package sk.glova.cryptowallet.services.impl;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sk.glova.cryptowallet.config.CacheFactory;
+import sk.glova.cryptowallet.domain.model.CurrencyPair;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
+
+/**
+ * Fetches conversion rate of a single currency pair from the rate provider. Concurrent callers asking for the same pair share one outstanding
+ * upstream call and a burst of calls within expire-after-write of the `pair-rates` cache is answered by the very same result (with
+ * refresh-after-write configured, hot pairs are re-fetched in the background before they expire). Distinct pairs are fetched in
+ * micro-batches by {@link PairRateBatcher}.
+ */
+@Component
+public class CoalescingPairRateFetcher {
+
+    public static final String PAIR_RATES = "pair-rates";
+
+    private final PairRateBatcher pairRateBatcher;
+
+    private final Map<CurrencyPair, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+    private final LoadingCache<CurrencyPair, BigDecimal> recent;
+
+    private final Counter upstreamCalls;
+    private final Counter savedCalls;
+    private final long timeout;
+
+    public CoalescingPairRateFetcher(
+        PairRateBatcher pairRateBatcher,
+        MeterRegistry meterRegistry,
+        CacheFactory cacheFactory,
+        @Value("${rates.pair.timeout}") long timeout
+    ) {
+        this.pairRateBatcher = pairRateBatcher;
+        this.timeout = timeout;
+        // the loader is used only by background refreshes, callers are coalesced before the cache is filled
+        this.recent = cacheFactory.create(PAIR_RATES, this::fetch);
+        this.upstreamCalls = meterRegistry.counter("rates.pair.upstream.calls");
+        this.savedCalls = meterRegistry.counter("rates.pair.saved.calls");
+    }
+
+    /**
+     * Returns conversion rate from fsym into tsym.
+     *
+     * @param fsym currency code to convert from
+     * @param tsym currency code to convert into
+     * @return conversion rate
+     */
+    public BigDecimal getRate(String fsym, String tsym) {
+        final CurrencyPair pair = new CurrencyPair(fsym, tsym);
+
+        final BigDecimal cached = recent.getIfPresent(pair);
+        if (cached != null) {
+            savedCalls.increment();
+            return cached;
+        }
+
+        final CompletableFuture<BigDecimal> mine = new CompletableFuture<>();
+        final CompletableFuture<BigDecimal> existing = inFlight.putIfAbsent(pair, mine);
+
+        // somebody is already asking for the same pair, wait for their answer
+        if (existing != null) {
+            savedCalls.increment();
+            return join(existing);
+        }
+
+        try {
+            final BigDecimal rate = fetch(pair);
+            recent.put(pair, rate);
+            mine.complete(rate);
+            return rate;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(pair, mine);
+        }
+    }
+
+    /**
+     * @return number of callers which did not have to call external API thanks to coalescing or the cache
+     */
+    public long getSavedCalls() {
+        return (long) savedCalls.count();
+    }
+
+    private BigDecimal fetch(CurrencyPair pair) {
+        upstreamCalls.increment();
+
+        return join(pairRateBatcher.submit(pair.getCurrencyFrom(), pair.getCurrencyTo()));
+    }
+
+    // callers never wait longer than the timeout, even when the batch is lost
+    private BigDecimal join(CompletableFuture<BigDecimal> future) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new RateUnavailableException("Rate was not fetched within " + timeout + " ms.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RateUnavailableException("Waiting for the rate was interrupted.");
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package sk.glova.cryptowallet.services.impl;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import sk.glova.cryptowallet.domain.model.CurrencyPair;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.services.api.ConversionService;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.utils.StaleRates;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversionServiceImpl implements ConversionService {
+
+    // number one in fixed-point representation of the rate matrix
+    private static final long ONE_SCALED = BigDecimal.ONE.scaleByPowerOfTen(RateMatrix.SCALE).longValueExact();
+
+    private final RateSnapshotService rateSnapshotService;
+    private final CoalescingPairRateFetcher pairRateFetcher;
+
+    @Value("${rates.conversion.max-age}")
+    private long defaultMaxRateAge;
+
+    @Value("${rates.conversion.cross-fiat}")
+    private String crossFiat;
+
+    private MathContext mathContext;
+
+    @Value("${rates.conversion.precision}")
+    void setPrecision(int precision) {
+        this.mathContext = new MathContext(precision);
+    }
+
+    @Override
+    public BigDecimal getConversionRate(String currencyFrom, String currencyTo, Long maxRateAge) {
+        if (currencyFrom.equals(currencyTo)) {
+            return BigDecimal.ONE;
+        }
+
+        return resolve(getSnapshotOrNull(), getTolerance(maxRateAge), currencyFrom, currencyTo);
+    }
+
+    @Override
+    public Map<CurrencyPair, BigDecimal> getConversionRates(Collection<CurrencyPair> pairs, Long maxRateAge) {
+        final long tolerance = getTolerance(maxRateAge);
+        // the snapshot is taken once, even when it is refreshed meanwhile
+        final RateSnapshot snapshot = getSnapshotOrNull();
+
+        final Map<CurrencyPair, BigDecimal> rates = new HashMap<>();
+        for (CurrencyPair pair : pairs) {
+            rates.computeIfAbsent(pair, key -> key.getCurrencyFrom().equals(key.getCurrencyTo())
+                ? BigDecimal.ONE
+                : resolve(snapshot, tolerance, key.getCurrencyFrom(), key.getCurrencyTo()));
+        }
+        return rates;
+    }
+
+    private long getTolerance(Long maxRateAge) {
+        return maxRateAge != null ? maxRateAge : defaultMaxRateAge;
+    }
+
+    private BigDecimal resolve(RateSnapshot snapshot, long tolerance, String currencyFrom, String currencyTo) {
+        if (snapshot != null && snapshot.getAge().toMillis() <= tolerance) {
+            final BigDecimal rate = derive(snapshot.getMatrix(), currencyFrom, currencyTo);
+            if (rate != null) {
+                return rate;
+            }
+        }
+
+        // snapshot is too old (or does not know the pair) for this request - ask the external api for this single pair
+        try {
+            return pairRateFetcher.getRate(currencyFrom, currencyTo);
+        } catch (RuntimeException ex) {
+            return getLastKnownRate(snapshot, currencyFrom, currencyTo, ex);
+        }
+    }
+
+    /**
+     * Derives the rate from the last known snapshot (still within staleness bound) when the external api is not reachable.
+     *
+     * @throws RuntimeException the original exception when the rate can not be derived
+     */
+    private BigDecimal getLastKnownRate(RateSnapshot snapshot, String currencyFrom, String currencyTo, RuntimeException ex) {
+        final BigDecimal rate = snapshot != null ? derive(snapshot.getMatrix(), currencyFrom, currencyTo) : null;
+        if (rate == null) {
+            throw ex;
+        }
+
+        log.warn("Rate {} -> {} is not available ({}), using last known rate fetched at {}", currencyFrom, currencyTo, ex.getMessage(),
+            snapshot.getFetchedAt());
+        StaleRates.mark(snapshot.getFetchedAt());
+        return rate;
+    }
+
+    private RateSnapshot getSnapshotOrNull() {
+        try {
+            return rateSnapshotService.getSnapshot();
+        } catch (RuntimeException ex) {
+            log.warn("Rate snapshot is not available, falling back to single pair rate: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Derives conversion rate from the matrix where matrix[crypto][fiat] is the price of one crypto unit in fiat.
+     *
+     * @return conversion rate or null when it can not be derived
+     */
+    private BigDecimal derive(RateMatrix matrix, String currencyFrom, String currencyTo) {
+        final int cryptoFrom = matrix.cryptoOrdinal(currencyFrom);
+        final int cryptoTo = matrix.cryptoOrdinal(currencyTo);
+
+        // crypto -> fiat
+        if (cryptoFrom >= 0 && cryptoTo < 0) {
+            final int fiat = matrix.fiatOrdinal(currencyTo);
+            return fiat < 0 ? null : matrix.get(cryptoFrom, fiat);
+        }
+
+        // fiat -> crypto
+        if (cryptoFrom < 0 && cryptoTo >= 0) {
+            final int fiat = matrix.fiatOrdinal(currencyFrom);
+            return fiat < 0 ? null : divide(ONE_SCALED, matrix.getScaled(cryptoTo, fiat));
+        }
+
+        // crypto -> crypto through a common fiat leg
+        if (cryptoFrom >= 0) {
+            return crossRate(matrix, cryptoFrom, cryptoTo);
+        }
+
+        return null;
+    }
+
+    private BigDecimal crossRate(RateMatrix matrix, int cryptoFrom, int cryptoTo) {
+        final int preferredFiat = matrix.fiatOrdinal(crossFiat);
+        if (preferredFiat >= 0) {
+            final BigDecimal preferred = divide(matrix.getScaled(cryptoFrom, preferredFiat), matrix.getScaled(cryptoTo, preferredFiat));
+            if (preferred != null) {
+                return preferred;
+            }
+        }
+
+        for (int fiat = 0; fiat < matrix.getFiatCount(); fiat++) {
+            final BigDecimal rate = divide(matrix.getScaled(cryptoFrom, fiat), matrix.getScaled(cryptoTo, fiat));
+            if (rate != null) {
+                return rate;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Divides two fixed-point numbers of the same scale.
+     *
+     * @return quotient or null when any of them is missing or divisor is zero
+     */
+    private BigDecimal divide(long dividend, long divisor) {
+        if (dividend == RateMatrix.MISSING || divisor == RateMatrix.MISSING || divisor == 0) {
+            return null;
+        }
+
+        return BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), mathContext);
+    }
+
+}
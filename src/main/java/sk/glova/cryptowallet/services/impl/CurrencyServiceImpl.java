@@ -1,35 +1,95 @@
 package sk.glova.cryptowallet.services.impl;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import sk.glova.cryptowallet.dao.CurrencyRepository;
+import sk.glova.cryptowallet.domain.event.CurrencyCatalogChangedEvent;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
 import sk.glova.cryptowallet.domain.model.SupportedCurrency;
+import sk.glova.cryptowallet.domain.request.AddCurrencyRequest;
+import sk.glova.cryptowallet.exception.EntityNotFoundException;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
 import sk.glova.cryptowallet.services.api.CurrencyService;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CurrencyServiceImpl implements CurrencyService {
 
     private final CurrencyRepository currencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CurrencyCatalog> catalog = new AtomicReference<>();
 
     @Override
-    @Cacheable("currencies")
-    public List<SupportedCurrency> getAllSupportedCurrencies() {
-        return currencyRepository.findAll()
-            .stream()
-            .filter(cur -> !cur.isCryptoCurrency())
-            .collect(Collectors.toList());
+    public CurrencyCatalog getCatalog() {
+        final CurrencyCatalog current = catalog.get();
+        return current != null ? current : loadInitialCatalog();
     }
 
     @Override
-    @Cacheable("crypto-currencies")
-    public List<SupportedCurrency> getAllSupportedCryptoCurrencies() {
-        return currencyRepository.findAll()
-            .stream()
-            .filter(SupportedCurrency::isCryptoCurrency)
+    public CurrencyCatalog addCurrency(AddCurrencyRequest request) throws OperationNotAllowedException {
+        final String code = request.getCode() == null ? "" : request.getCode().trim().toUpperCase();
+
+        if (!SupportedCurrency.CODE_PATTERN.matcher(code).matches()) {
+            throw new OperationNotAllowedException("Provided code must consist of 2 to 10 letters or digits.");
+        }
+
+        synchronized (catalog) {
+            if (getCatalog().find(code) != null) {
+                throw new OperationNotAllowedException("Currency [" + code + "] is already supported.");
+            }
+
+            currencyRepository.save(SupportedCurrency.builder().code(code).isCryptoCurrency(request.isCryptoCurrency()).build());
+            return reload();
+        }
+    }
+
+    @Override
+    public CurrencyCatalog removeCurrency(String code) throws EntityNotFoundException {
+        synchronized (catalog) {
+            final SupportedCurrency currency = currencyRepository.findByCode(code.toUpperCase())
+                .orElseThrow(() -> new EntityNotFoundException("Currency [" + code.toUpperCase() + "] is not supported."));
+
+            currencyRepository.delete(currency);
+            return reload();
+        }
+    }
+
+    private CurrencyCatalog loadInitialCatalog() {
+        synchronized (catalog) {
+            final CurrencyCatalog current = catalog.get();
+            return current != null ? current : reload();
+        }
+    }
+
+    private CurrencyCatalog reload() {
+        // changes are serialized, so versions of published catalogs never go backwards
+        synchronized (catalog) {
+            final List<SupportedCurrency> currencies = currencyRepository.findAll();
+            final CurrencyCatalog previous = catalog.get();
+            final CurrencyCatalog loaded = CurrencyCatalog.of(previous == null ? 1 : previous.getVersion() + 1,
+                getCodes(currencies, true), getCodes(currencies, false));
+
+            catalog.set(loaded);
+
+            if (previous != null) {
+                log.info("Supported currencies changed, catalog version {} replaced by {}", previous.getVersion(), loaded.getVersion());
+                eventPublisher.publishEvent(new CurrencyCatalogChangedEvent(previous, loaded));
+            }
+            return loaded;
+        }
+    }
+
+    private static List<String> getCodes(List<SupportedCurrency> currencies, boolean cryptoCurrency) {
+        return currencies.stream()
+            .filter(currency -> currency.isCryptoCurrency() == cryptoCurrency)
+            .map(SupportedCurrency::getCode)
             .collect(Collectors.toList());
     }
 
@@ -0,0 +1,110 @@
+package sk.glova.cryptowallet.services.impl;
+
+import static org.springframework.http.HttpMethod.GET;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.services.api.RateProvider;
+
+/**
+ * Rates of the external (cryptocompare) API.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rates.provider", havingValue = "http", matchIfMissing = true)
+public class HttpRateProvider implements RateProvider {
+
+    private static final String ERROR_FIELD = "Response";
+    private static final String ERROR_VALUE = "Error";
+    private static final String MESSAGE_FIELD = "Message";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${external.api.multi-url}")
+    private String multiUrl;
+
+    @Value("${external.api.single-url}")
+    private String singleUrl;
+
+    @Override
+    public RateMatrix getRates(RateMatrix.Layout layout) {
+        // response is streamed straight into the primitive matrix, no intermediate maps are built
+        return restTemplate.execute(multiUrl, GET, null, response -> parseMatrix(response.getBody(), layout),
+            String.join(",", layout.getCryptoCodes()), String.join(",", layout.getFiatCodes()));
+    }
+
+    @Override
+    public BigDecimal getRate(String currencyFrom, String currencyTo) {
+        return Objects.requireNonNull(restTemplate
+            .exchange(singleUrl, GET, null, new ParameterizedTypeReference<Map<String, BigDecimal>>() {}, currencyFrom, currencyTo)
+            .getBody())
+            .get(currencyTo);
+    }
+
+    /**
+     * Parses response of shape {"BTC": {"USD": 1.23, ...}, ...}. Other scalar fields are skipped, but an error response ({"Response": "Error",
+     * "Message": ...}, sent with status 200 e.g. on rate limit) or a response without any rate row fails the call, so that it is recorded by
+     * the circuit breaker and the last known rates are kept.
+     */
+    private RateMatrix parseMatrix(InputStream body, RateMatrix.Layout layout) throws IOException {
+        final RateMatrix.Builder builder = RateMatrix.builder(layout);
+        boolean error = false;
+        String message = null;
+        int rows = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected rate response, JSON object expected.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String crypto = parser.getCurrentName();
+
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    if (ERROR_FIELD.equals(crypto)) {
+                        error = ERROR_VALUE.equalsIgnoreCase(parser.getValueAsString());
+                    } else if (MESSAGE_FIELD.equals(crypto)) {
+                        message = parser.getValueAsString();
+                    }
+                    parser.skipChildren();
+                    continue;
+                }
+
+                rows++;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fiat = parser.getCurrentName();
+                    if (parser.nextToken().isNumeric()) {
+                        builder.set(crypto, fiat, parser.getDecimalValue());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        if (error) {
+            throw new IOException("External rate API returned an error: " + message);
+        }
+        if (rows == 0) {
+            throw new IOException("External rate API returned no rates.");
+        }
+
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,385 @@
+package sk.glova.cryptowallet.services.impl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sk.glova.cryptowallet.dao.BalanceSnapshotRepository;
+import sk.glova.cryptowallet.dao.HoldingRepository;
+import sk.glova.cryptowallet.dao.LedgerEntryRepository;
+import sk.glova.cryptowallet.dao.WalletRepository;
+import sk.glova.cryptowallet.domain.model.BalanceSnapshot;
+import sk.glova.cryptowallet.domain.model.Currency;
+import sk.glova.cryptowallet.domain.model.LedgerEntry;
+import sk.glova.cryptowallet.domain.response.BalanceMismatch;
+import sk.glova.cryptowallet.domain.response.LedgerEntryResponse;
+import sk.glova.cryptowallet.domain.response.LedgerReplayReport;
+import sk.glova.cryptowallet.exception.EntityNotFoundException;
+import sk.glova.cryptowallet.services.api.LedgerService;
+import sk.glova.cryptowallet.utils.RetryPolicy;
+
+/**
+ * Ledger of all changes of holding amounts. Amount of a holding stays materialized in its row (reads and balance checks of transfers stay
+ * O(1)), every change appends an entry in the same transaction. Snapshots taken in background fold the entries into amounts at given
+ * positions, so the amount of a holding can be derived from its snapshot and a short tail of entries, and the replay rebuilds all amounts
+ * from the ledger.
+ */
+@Slf4j
+@Service
+public class LedgerServiceImpl implements LedgerService {
+
+    // mismatches listed in the replay report
+    private static final int REPORTED_MISMATCHES = 100;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final HoldingRepository holdingRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryPolicy walletUpdateRetryPolicy;
+    private final long snapshotMinEntries;
+    private final int snapshotChunkSize;
+    private final int replayChunkSize;
+    private final ExecutorService replayExecutor;
+
+    private final Object snapshotLock = new Object();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public LedgerServiceImpl(
+        LedgerEntryRepository ledgerEntryRepository,
+        BalanceSnapshotRepository snapshotRepository,
+        HoldingRepository holdingRepository,
+        WalletRepository walletRepository,
+        TransactionTemplate transactionTemplate,
+        RetryPolicy walletUpdateRetryPolicy,
+        @Value("${ledger.snapshot.min-entries}") long snapshotMinEntries,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int snapshotChunkSize,
+        @Value("${ledger.replay.chunk-size}") int replayChunkSize,
+        @Value("${ledger.replay.parallelism}") int replayParallelism
+    ) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.holdingRepository = holdingRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.walletUpdateRetryPolicy = walletUpdateRetryPolicy;
+        this.snapshotMinEntries = snapshotMinEntries;
+        this.snapshotChunkSize = snapshotChunkSize;
+        this.replayChunkSize = replayChunkSize;
+        this.replayExecutor = Executors.newFixedThreadPool(replayParallelism, createThreadFactory());
+    }
+
+    @Override
+    public void record(Currency holding, LedgerEntry.Type type, BigDecimal amount, Long counterpartyWalletId) {
+        // the position is a column of the optimistically locked holding, so two transactions never append the same position
+        holding.setLedgerPosition(holding.getLedgerPosition() + 1);
+
+        ledgerEntryRepository.save(LedgerEntry.builder()
+            .walletId(holding.getWallet().getId())
+            .holdingId(holding.getId())
+            .code(holding.getCode())
+            .position(holding.getLedgerPosition())
+            .type(type)
+            .amount(amount)
+            .counterpartyWalletId(counterpartyWalletId)
+            .createdAt(Instant.now())
+            .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<LedgerEntryResponse> getEntries(Long walletId, Pageable pageable) throws EntityNotFoundException {
+        if (!walletRepository.existsById(walletId)) {
+            throw new EntityNotFoundException("Wallet with given ID does not exist.");
+        }
+
+        final Pageable sorted = pageable.getSort().isSorted()
+            ? pageable
+            : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        return ledgerEntryRepository.findByWalletId(walletId, sorted).map(entry -> LedgerEntryResponse.builder()
+            .id(entry.getId())
+            .type(entry.getType())
+            .code(entry.getCode())
+            .amount(entry.getAmount())
+            .position(entry.getPosition())
+            .counterpartyWalletId(entry.getCounterpartyWalletId())
+            .createdAt(entry.getCreatedAt())
+            .build());
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.snapshot.interval}", initialDelayString = "${ledger.snapshot.interval}")
+    public void scheduledSnapshots() {
+        try {
+            final int snapshotted = takeSnapshots();
+            log.debug("Snapshotted {} holdings", snapshotted);
+        } catch (RuntimeException ex) {
+            log.warn("Ledger snapshot failed, the next run continues: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public int takeSnapshots() {
+        // snapshots have only this writer, serialized so that two runs never insert the first snapshot of the same holding
+        synchronized (snapshotLock) {
+            int snapshotted = 0;
+            Long afterId = 0L;
+            List<Long> holdingIds;
+            final PageRequest page = PageRequest.of(0, snapshotChunkSize);
+            while (!(holdingIds = holdingRepository.findIdsToSnapshot(afterId, snapshotMinEntries, page)).isEmpty()) {
+                final List<Long> chunk = holdingIds;
+                // one short transaction per chunk, holdings themselves are never written, so adds and transfers are not disturbed
+                snapshotted += transactionTemplate.execute(status -> snapshot(chunk));
+                afterId = chunk.get(chunk.size() - 1);
+            }
+            return snapshotted;
+        }
+    }
+
+    @Override
+    public LedgerReplayReport replay(boolean fromSnapshots, boolean apply) {
+        final long start = System.nanoTime();
+        final ReplayTotals totals = new ReplayTotals();
+
+        Long afterId = 0L;
+        List<Long> walletIds;
+        while (!(walletIds = walletRepository.findIdsAfter(afterId, PageRequest.of(0, replayChunkSize))).isEmpty()) {
+            final List<Long> chunk = walletIds;
+            // corrected holdings are optimistically locked, a chunk changed meanwhile is replayed again
+            totals.add(walletUpdateRetryPolicy.call(() -> fromSnapshots
+                ? replayChunkFromSnapshots(chunk, apply)
+                : transactionTemplate.execute(status -> replayChunk(chunk, false, apply))));
+            afterId = chunk.get(chunk.size() - 1);
+        }
+
+        return LedgerReplayReport.builder()
+            .fromSnapshots(fromSnapshots)
+            .applied(apply)
+            .wallets(totals.wallets)
+            .holdings(totals.holdings)
+            .entries(totals.entries)
+            .mismatches(totals.mismatches)
+            .corrected(totals.corrected)
+            .firstMismatches(totals.firstMismatches)
+            .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    private int snapshot(List<Long> holdingIds) {
+        final Map<Long, BalanceSnapshot> snapshots = snapshotRepository.findAllById(holdingIds).stream()
+            .collect(Collectors.toMap(BalanceSnapshot::getHoldingId, Function.identity()));
+        final Instant now = Instant.now();
+
+        int snapshotted = 0;
+        for (List<LedgerEntry> tail : groupBy(ledgerEntryRepository.findTails(holdingIds), LedgerEntry::getHoldingId).values()) {
+            final LedgerEntry first = tail.get(0);
+            BalanceSnapshot snapshot = snapshots.get(first.getHoldingId());
+            final boolean created = snapshot == null;
+            if (created) {
+                snapshot = BalanceSnapshot.builder()
+                    .holdingId(first.getHoldingId())
+                    .walletId(first.getWalletId())
+                    .code(first.getCode())
+                    .amount(BigDecimal.ZERO)
+                    .build();
+            }
+
+            final Fold fold = fold(snapshot.getAmount(), snapshot.getPosition(), tail, Long.MAX_VALUE);
+            if (fold.gap) {
+                log.warn("Ledger of holding {} has a gap after position {}, snapshot stops there", first.getHoldingId(), fold.position);
+            }
+            if (fold.position == snapshot.getPosition()) {
+                continue;
+            }
+
+            snapshot.setAmount(fold.amount);
+            snapshot.setPosition(fold.position);
+            snapshot.setTakenAt(now);
+            if (created) {
+                entityManager.persist(snapshot);
+            }
+            snapshotted++;
+        }
+        return snapshotted;
+    }
+
+    // snapshots must not move between reading them and reading the tails after them
+    private ReplayTotals replayChunkFromSnapshots(List<Long> walletIds, boolean apply) {
+        synchronized (snapshotLock) {
+            return transactionTemplate.execute(status -> replayChunk(walletIds, true, apply));
+        }
+    }
+
+    private ReplayTotals replayChunk(List<Long> walletIds, boolean fromSnapshots, boolean apply) {
+        // holdings are read before the entries, entries beyond the read position of a holding were appended later and are left out
+        final List<Currency> holdings = holdingRepository.findByWalletIdIn(walletIds);
+        final Map<Long, BalanceSnapshot> snapshots = fromSnapshots
+            ? snapshotRepository.findByWalletIdIn(walletIds).stream().collect(Collectors.toMap(BalanceSnapshot::getHoldingId, Function.identity()))
+            : Map.of();
+        final List<LedgerEntry> entries;
+        if (holdings.isEmpty()) {
+            entries = List.of();
+        } else if (fromSnapshots) {
+            entries = ledgerEntryRepository.findTails(holdings.stream().map(Currency::getId).collect(Collectors.toList()));
+        } else {
+            entries = ledgerEntryRepository.findByWalletIdInOrderByHoldingIdAscPositionAsc(walletIds);
+        }
+
+        final Map<Long, List<Currency>> holdingsByWallet = groupBy(holdings, holding -> holding.getWallet().getId());
+        final Map<Long, List<LedgerEntry>> entriesByWallet = groupBy(entries, LedgerEntry::getWalletId);
+
+        // wallets are folded in parallel, folding reads only already loaded fields and never touches the (not thread-safe) session
+        final List<CompletableFuture<List<BalanceMismatch>>> folds = new ArrayList<>(holdingsByWallet.size());
+        for (Map.Entry<Long, List<Currency>> wallet : holdingsByWallet.entrySet()) {
+            final List<LedgerEntry> walletEntries = entriesByWallet.getOrDefault(wallet.getKey(), List.of());
+            folds.add(CompletableFuture.supplyAsync(() -> replayWallet(wallet.getKey(), wallet.getValue(), walletEntries, snapshots),
+                replayExecutor));
+        }
+
+        final Map<Long, Currency> holdingsById = holdings.stream().collect(Collectors.toMap(Currency::getId, Function.identity()));
+        final ReplayTotals totals = new ReplayTotals();
+        totals.wallets = walletIds.size();
+        totals.holdings = holdings.size();
+        totals.entries = entries.size();
+        for (CompletableFuture<List<BalanceMismatch>> fold : folds) {
+            for (BalanceMismatch mismatch : fold.join()) {
+                totals.addMismatch(mismatch);
+                // holding with missing entries can not be rebuilt, it is only reported
+                if (apply && mismatch.getReplayedPosition() == mismatch.getStoredPosition()) {
+                    holdingsById.get(mismatch.getHoldingId()).setAmount(mismatch.getReplayedAmount());
+                    totals.corrected++;
+                }
+            }
+        }
+        return totals;
+    }
+
+    private static List<BalanceMismatch> replayWallet(Long walletId, List<Currency> holdings, List<LedgerEntry> entries,
+        Map<Long, BalanceSnapshot> snapshots) {
+        final Map<Long, List<LedgerEntry>> entriesByHolding = groupBy(entries, LedgerEntry::getHoldingId);
+
+        final List<BalanceMismatch> mismatches = new ArrayList<>();
+        for (Currency holding : holdings) {
+            final BalanceSnapshot snapshot = snapshots.get(holding.getId());
+            final Fold fold = fold(
+                snapshot != null ? snapshot.getAmount() : BigDecimal.ZERO,
+                snapshot != null ? snapshot.getPosition() : 0,
+                entriesByHolding.getOrDefault(holding.getId(), List.of()),
+                holding.getLedgerPosition());
+
+            if (fold.position != holding.getLedgerPosition() || fold.amount.compareTo(holding.getAmount()) != 0) {
+                mismatches.add(BalanceMismatch.builder()
+                    .walletId(walletId)
+                    .holdingId(holding.getId())
+                    .code(holding.getCode())
+                    .storedAmount(holding.getAmount())
+                    .replayedAmount(fold.amount)
+                    .storedPosition(holding.getLedgerPosition())
+                    .replayedPosition(fold.position)
+                    .build());
+            }
+        }
+        return mismatches;
+    }
+
+    // adds entries (ordered by position) to given amount at given position up to maxPosition, stops at the first missing position
+    private static Fold fold(BigDecimal amount, long position, List<LedgerEntry> entries, long maxPosition) {
+        final Fold fold = new Fold();
+        fold.amount = amount;
+        fold.position = position;
+        for (LedgerEntry entry : entries) {
+            if (entry.getPosition() <= position) {
+                continue;
+            }
+            if (entry.getPosition() > maxPosition) {
+                break;
+            }
+            if (entry.getPosition() != fold.position + 1) {
+                fold.gap = true;
+                break;
+            }
+            fold.amount = fold.amount.add(entry.getAmount());
+            fold.position = entry.getPosition();
+        }
+        return fold;
+    }
+
+    // keeps the order of given values within every group
+    private static <K, V> Map<K, List<V>> groupBy(List<V> values, Function<V, K> key) {
+        return values.stream().collect(Collectors.groupingBy(key, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private static CustomizableThreadFactory createThreadFactory() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ledger-replay-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static class Fold {
+
+        private BigDecimal amount;
+        private long position;
+        private boolean gap;
+
+    }
+
+    private static class ReplayTotals {
+
+        private long wallets;
+        private long holdings;
+        private long entries;
+        private long mismatches;
+        private long corrected;
+        private final List<BalanceMismatch> firstMismatches = new ArrayList<>();
+
+        private void addMismatch(BalanceMismatch mismatch) {
+            mismatches++;
+            if (firstMismatches.size() < REPORTED_MISMATCHES) {
+                firstMismatches.add(mismatch);
+            }
+        }
+
+        private void add(ReplayTotals chunk) {
+            wallets += chunk.wallets;
+            holdings += chunk.holdings;
+            entries += chunk.entries;
+            corrected += chunk.corrected;
+            for (BalanceMismatch mismatch : chunk.firstMismatches) {
+                addMismatch(mismatch);
+            }
+            // mismatches beyond the reported ones of the chunk
+            mismatches += chunk.mismatches - chunk.firstMismatches.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,283 @@
+package sk.glova.cryptowallet.services.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
+import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.services.api.RateProvider;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
+
+/**
+ * Collects single pair lookups arriving within a short window (or up to max batch size) and fetches all of them by one multi rate call.
+ * Pairs are fetched in crypto -> fiat direction and inverted when needed, so that the fixed-point matrix keeps enough significant digits.
+ * Crypto -> crypto pairs are fetched in both directions and the one which is not below one is used (inverted when needed) for the same
+ * reason. Pairs missing in the batch result fall back to a single pair call.
+ */
+@Slf4j
+@Component
+public class PairRateBatcher {
+
+    // number one in fixed-point representation of the rate matrix
+    private static final long ONE_SCALED = BigDecimal.ONE.scaleByPowerOfTen(RateMatrix.SCALE).longValueExact();
+
+    private final RateFetchPlanner rateFetchPlanner;
+    private final RateProvider rateProvider;
+    private final CurrencyService currencyService;
+    private final CircuitBreaker circuitBreaker;
+    private final long windowNanos;
+    private final int maxSize;
+    private final MathContext mathContext;
+
+    private final BlockingQueue<PairRequest> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(createThreadFactory("rate-batch-dispatcher-"));
+    private final ExecutorService fetcher;
+
+    private final DistributionSummary batchSize;
+    private final Timer addedWait;
+
+    public PairRateBatcher(
+        RateFetchPlanner rateFetchPlanner,
+        RateProvider rateProvider,
+        CurrencyService currencyService,
+        CircuitBreaker circuitBreaker,
+        MeterRegistry meterRegistry,
+        @Value("${rates.pair.batch.window}") long window,
+        @Value("${rates.pair.batch.max-size}") int maxSize,
+        @Value("${rates.pair.batch.parallelism}") int parallelism,
+        @Value("${rates.conversion.precision}") int precision
+    ) {
+        this.rateFetchPlanner = rateFetchPlanner;
+        this.rateProvider = rateProvider;
+        this.currencyService = currencyService;
+        this.circuitBreaker = circuitBreaker;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(window);
+        this.maxSize = maxSize;
+        this.mathContext = new MathContext(precision);
+        this.fetcher = Executors.newFixedThreadPool(parallelism, createThreadFactory("rate-batch-fetch-"));
+        this.batchSize = DistributionSummary.builder("rates.pair.batch.size")
+            .description("Number of pair lookups fetched by one call")
+            .register(meterRegistry);
+        this.addedWait = Timer.builder("rates.pair.batch.wait")
+            .description("Time a pair lookup waited for its batch to be dispatched")
+            .register(meterRegistry);
+
+        dispatcher.execute(this::dispatch);
+    }
+
+    /**
+     * Schedules lookup of conversion rate from currencyFrom into currencyTo into the next batch.
+     *
+     * @return future completed when the batch is fetched
+     */
+    public CompletableFuture<BigDecimal> submit(String currencyFrom, String currencyTo) {
+        final PairRequest request = new PairRequest(currencyFrom, currencyTo, System.nanoTime());
+        queue.add(request);
+
+        // nobody would ever take the request from the queue
+        if (dispatcher.isShutdown()) {
+            failPending();
+        }
+
+        return request.getResult();
+    }
+
+    /**
+     * Stops dispatching and fails every lookup which has not been fetched yet, so that no caller waits for a batch which never comes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        // fetcher goes first, so that the batch being collected is rejected (and failed) instead of being fetched
+        for (Runnable notStarted : fetcher.shutdownNow()) {
+            if (notStarted instanceof BatchTask) {
+                fail(((BatchTask) notStarted).batch, shutdownException());
+            }
+        }
+        dispatcher.shutdownNow();
+        failPending();
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PairRequest> batch = null;
+            try {
+                batch = collectBatch();
+                fetcher.execute(new BatchTask(batch));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                // e.g. rejected by the fetcher during shutdown
+                log.error("Pair rate batch dispatching failed", ex);
+                if (batch != null) {
+                    fail(batch, ex);
+                }
+            }
+        }
+    }
+
+    // waits for the first request, then collects more of them until the window elapses or the batch is full
+    private List<PairRequest> collectBatch() throws InterruptedException {
+        final List<PairRequest> batch = new ArrayList<>(maxSize);
+        batch.add(queue.take());
+
+        final long deadline = System.nanoTime() + windowNanos;
+        try {
+            while (batch.size() < maxSize) {
+                final PairRequest next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException ex) {
+            // requests already taken from the queue are dispatched (or failed) with the rest of the batch
+            Thread.currentThread().interrupt();
+        }
+
+        final long dispatchedAt = System.nanoTime();
+        batch.forEach(request -> addedWait.record(dispatchedAt - request.getSubmittedAt(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        return batch;
+    }
+
+    private void fetch(List<PairRequest> batch) {
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+
+        // rows are the "from" side of crypto -> fiat (or crypto -> crypto) direction, columns the "to" side
+        final Set<String> rows = new LinkedHashSet<>();
+        final Set<String> columns = new LinkedHashSet<>();
+        for (PairRequest request : batch) {
+            request.orient(catalog);
+            rows.add(request.getRow());
+            columns.add(request.getColumn());
+            if (request.isBothWays()) {
+                rows.add(request.getColumn());
+                columns.add(request.getRow());
+            }
+        }
+
+        final RateMatrix matrix;
+        try {
+            matrix = circuitBreaker.call(() -> rateFetchPlanner.fetchDirect(RateMatrix.Layout.of(new ArrayList<>(rows), new ArrayList<>(columns))));
+        } catch (RuntimeException ex) {
+            fail(batch, ex);
+            return;
+        }
+
+        for (PairRequest request : batch) {
+            final long scaled = getScaled(matrix, request.getRow(), request.getColumn());
+            final long reverse = request.isBothWays() ? getScaled(matrix, request.getColumn(), request.getRow()) : RateMatrix.MISSING;
+
+            if (scaled < ONE_SCALED && reverse > 0 && reverse > scaled) {
+                // rate below one keeps only a few significant digits in the fixed-point matrix, the reverse one keeps all of them
+                request.getResult().complete(BigDecimal.ONE.divide(RateMatrix.toDecimal(reverse), mathContext));
+            } else if (scaled == RateMatrix.MISSING || scaled == 0) {
+                fetchSingle(request);
+            } else if (request.isInverted()) {
+                request.getResult().complete(BigDecimal.ONE.divide(RateMatrix.toDecimal(scaled), mathContext));
+            } else {
+                request.getResult().complete(RateMatrix.toDecimal(scaled));
+            }
+        }
+    }
+
+    private void failPending() {
+        final List<PairRequest> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        fail(pending, shutdownException());
+    }
+
+    private static void fail(List<PairRequest> batch, RuntimeException ex) {
+        batch.forEach(request -> request.getResult().completeExceptionally(ex));
+    }
+
+    private static RuntimeException shutdownException() {
+        return new RateUnavailableException("Rate lookup was cancelled, the application is shutting down.");
+    }
+
+    private static long getScaled(RateMatrix matrix, String row, String column) {
+        return matrix.getScaled(matrix.cryptoOrdinal(row), matrix.fiatOrdinal(column));
+    }
+
+    private void fetchSingle(PairRequest request) {
+        try {
+            request.getResult().complete(circuitBreaker.call(() -> rateProvider.getRate(request.getCurrencyFrom(), request.getCurrencyTo())));
+        } catch (RuntimeException ex) {
+            request.getResult().completeExceptionally(ex);
+        }
+    }
+
+    private static CustomizableThreadFactory createThreadFactory(String prefix) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    // named task, so that batches never started can be failed on shutdown
+    @RequiredArgsConstructor
+    private class BatchTask implements Runnable {
+
+        private final List<PairRequest> batch;
+
+        @Override
+        public void run() {
+            try {
+                fetch(batch);
+            } catch (RuntimeException ex) {
+                // requests completed already are not affected
+                fail(batch, ex);
+            }
+        }
+
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class PairRequest {
+
+        private final String currencyFrom;
+        private final String currencyTo;
+        private final long submittedAt;
+        private final CompletableFuture<BigDecimal> result = new CompletableFuture<>();
+
+        private String row;
+        private String column;
+        private boolean inverted;
+        // crypto -> crypto, the direction with rate not below one is known only once fetched
+        private boolean bothWays;
+
+        // fiat -> crypto is fetched as crypto -> fiat, rates below one would lose digits in the fixed-point matrix
+        void orient(CurrencyCatalog catalog) {
+            final boolean cryptoFrom = catalog.isCrypto(currencyFrom);
+            final boolean cryptoTo = catalog.isCrypto(currencyTo);
+            inverted = !cryptoFrom && cryptoTo;
+            bothWays = cryptoFrom && cryptoTo;
+            row = inverted ? currencyTo : currencyFrom;
+            column = inverted ? currencyFrom : currencyTo;
+        }
+
+    }
+
+}
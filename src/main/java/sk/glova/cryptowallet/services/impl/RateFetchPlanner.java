@@ -0,0 +1,277 @@
+package sk.glova.cryptowallet.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.services.api.RateProvider;
+
+/**
+ * Fetches the whole rate matrix in provider-sized chunks. Crypto-currency and fiat codes are split into consecutive chunks which fit into
+ * provider's limits of the joined code lists, chunks are fetched in parallel and merged into one matrix. A failed chunk leaves its rates
+ * missing, the fetch fails only when all chunks fail.
+ * <p>
+ * In triangulated mode only cryptos x base fiat and base fiat x fiats are fetched, the rest of the matrix is derived locally. When the base fiat
+ * x fiats table fails, only the base fiat rates are filled and the fetch fails only when the cryptos x base fiat chunks all fail.
+ */
+@Slf4j
+@Component
+public class RateFetchPlanner {
+
+    enum Mode {
+        // every crypto-currency against every fiat currency, N x M rates
+        FULL,
+        // crypto-currencies against base fiat plus base fiat against other fiats, N + M rates
+        TRIANGULATED
+    }
+
+    private final RateProvider rateProvider;
+    private final int maxCryptoCodesLength;
+    private final int maxFiatCodesLength;
+    private final Mode mode;
+    private final String baseFiat;
+    private final MathContext mathContext;
+    private final ExecutorService executor;
+
+    private final Counter fetchedChunks;
+    private final Counter failedChunks;
+
+    public RateFetchPlanner(
+        RateProvider rateProvider,
+        MeterRegistry meterRegistry,
+        @Value("${rates.fetch.max-crypto-codes-length}") int maxCryptoCodesLength,
+        @Value("${rates.fetch.max-fiat-codes-length}") int maxFiatCodesLength,
+        @Value("${rates.fetch.parallelism}") int parallelism,
+        @Value("${rates.fetch.mode}") Mode mode,
+        @Value("${rates.fetch.base-fiat}") String baseFiat,
+        @Value("${rates.fetch.precision}") int precision
+    ) {
+        this.rateProvider = rateProvider;
+        this.maxCryptoCodesLength = maxCryptoCodesLength;
+        this.maxFiatCodesLength = maxFiatCodesLength;
+        this.mode = mode;
+        this.baseFiat = baseFiat;
+        this.mathContext = new MathContext(precision);
+        this.executor = Executors.newFixedThreadPool(parallelism, createThreadFactory());
+        this.fetchedChunks = meterRegistry.counter("rates.fetch.chunks", "result", "success");
+        this.failedChunks = meterRegistry.counter("rates.fetch.chunks", "result", "failure");
+    }
+
+    /**
+     * Fetches all rates of given layout in configured mode.
+     *
+     * @param layout crypto-currencies and fiat currencies to fetch
+     * @return matrix of rates in given layout
+     * @throws RuntimeException failure of the last chunk when no chunk was fetched
+     */
+    public RateMatrix fetch(RateMatrix.Layout layout) {
+        final int baseFiatOrdinal = new ArrayList<>(layout.getFiatCodes()).indexOf(baseFiat);
+
+        if (mode == Mode.TRIANGULATED && baseFiatOrdinal >= 0 && layout.getFiatCodes().size() > 1) {
+            return fetchTriangulated(layout, baseFiatOrdinal);
+        }
+
+        return fetchDirect(layout);
+    }
+
+    /**
+     * Fetches every row x column rate of given layout, rows and columns can be any currency codes.
+     *
+     * @param layout currencies to fetch
+     * @return matrix of rates in given layout
+     * @throws RuntimeException failure of the last chunk when no chunk was fetched
+     */
+    public RateMatrix fetchDirect(RateMatrix.Layout layout) {
+        final List<Chunk> chunks = plan(layout);
+
+        // the common case of a small catalog does not need any hand-off
+        if (chunks.size() == 1) {
+            return rateProvider.getRates(layout);
+        }
+
+        final List<CompletableFuture<RateMatrix>> futures = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> rateProvider.getRates(chunk.getLayout()), executor));
+        }
+
+        final RateMatrix.Builder builder = RateMatrix.builder(layout);
+        RuntimeException lastFailure = null;
+        int failures = 0;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                merge(builder, chunks.get(i), futures.get(i).join());
+                fetchedChunks.increment();
+            } catch (CompletionException ex) {
+                failures++;
+                failedChunks.increment();
+                lastFailure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+                log.warn("Rate chunk {} failed, its rates are missing in this snapshot: {}", chunks.get(i), lastFailure.getMessage());
+            }
+        }
+
+        if (failures == chunks.size()) {
+            throw lastFailure;
+        }
+
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * rate[crypto][fiat] = rate[crypto][base] * rate[base][fiat]
+     */
+    private RateMatrix fetchTriangulated(RateMatrix.Layout layout, int baseFiatOrdinal) {
+        final List<String> fiats = new ArrayList<>(layout.getFiatCodes());
+        final RateMatrix.Layout cryptoLayout = RateMatrix.Layout.of(layout.getCryptoCodes(), List.of(baseFiat));
+        final RateMatrix.Layout fiatLayout = RateMatrix.Layout.of(List.of(baseFiat), fiats);
+
+        // the small fiat table is fetched alongside the crypto chunks (when it does not need chunks itself, which would compete for the pool)
+        final CompletableFuture<RateMatrix> fiatFuture = split(fiats, maxFiatCodesLength).size() == 1
+            ? CompletableFuture.supplyAsync(() -> rateProvider.getRates(fiatLayout), executor)
+            : null;
+        final RateMatrix cryptoRates = fetchDirect(cryptoLayout);
+
+        // without the fiat table the base fiat rates are still usable, the other fiat columns stay missing like rates of a failed chunk
+        final BigDecimal[] crossRates = new BigDecimal[fiats.size()];
+        try {
+            final RateMatrix fiatRates = fiatFuture != null ? join(fiatFuture) : fetchDirect(fiatLayout);
+            for (int fiat = 0; fiat < crossRates.length; fiat++) {
+                crossRates[fiat] = RateMatrix.toDecimal(fiatRates.getScaled(0, fiat));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Rates of {} in other fiat currencies failed, only {} rates are in this snapshot: {}", baseFiat, baseFiat, ex.getMessage());
+        }
+
+        final RateMatrix.Builder builder = RateMatrix.builder(layout);
+        for (int crypto = 0; crypto < cryptoRates.getCryptoCount(); crypto++) {
+            final long basePrice = cryptoRates.getScaled(crypto, 0);
+            if (basePrice == RateMatrix.MISSING) {
+                continue;
+            }
+
+            final BigDecimal price = RateMatrix.toDecimal(basePrice);
+            for (int fiat = 0; fiat < crossRates.length; fiat++) {
+                if (fiat == baseFiatOrdinal) {
+                    builder.set(crypto, fiat, basePrice);
+                } else if (crossRates[fiat] != null) {
+                    builder.set(crypto, fiat, toScaled(price.multiply(crossRates[fiat], mathContext)));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static long toScaled(BigDecimal value) {
+        return value.setScale(RateMatrix.SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static RateMatrix join(CompletableFuture<RateMatrix> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private List<Chunk> plan(RateMatrix.Layout layout) {
+        final List<int[]> cryptoRanges = split(layout.getCryptoCodes(), maxCryptoCodesLength);
+        final List<int[]> fiatRanges = split(new ArrayList<>(layout.getFiatCodes()), maxFiatCodesLength);
+
+        if (cryptoRanges.size() == 1 && fiatRanges.size() == 1) {
+            return List.of(new Chunk(layout, 0, 0));
+        }
+
+        final List<String> cryptos = layout.getCryptoCodes();
+        final List<String> fiats = new ArrayList<>(layout.getFiatCodes());
+        final List<Chunk> chunks = new ArrayList<>(cryptoRanges.size() * fiatRanges.size());
+
+        for (int[] cryptoRange : cryptoRanges) {
+            for (int[] fiatRange : fiatRanges) {
+                final RateMatrix.Layout chunkLayout = RateMatrix.Layout.of(
+                    cryptos.subList(cryptoRange[0], cryptoRange[1]),
+                    fiats.subList(fiatRange[0], fiatRange[1]));
+                chunks.add(new Chunk(chunkLayout, cryptoRange[0], fiatRange[0]));
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Splits codes into consecutive ranges [from, to) whose comma separated codes are not longer than maxLength.
+     */
+    private static List<int[]> split(List<String> codes, int maxLength) {
+        final List<int[]> ranges = new ArrayList<>();
+        int from = 0;
+        int length = 0;
+
+        for (int i = 0; i < codes.size(); i++) {
+            final int codeLength = codes.get(i).length() + (i > from ? 1 : 0);
+            if (i > from && length + codeLength > maxLength) {
+                ranges.add(new int[]{from, i});
+                from = i;
+                length = codes.get(i).length();
+            } else {
+                length += codeLength;
+            }
+        }
+
+        ranges.add(new int[]{from, codes.size()});
+        return ranges;
+    }
+
+    // chunk covers consecutive ordinals, so its ordinals map to the whole layout by a plain offset
+    private static void merge(RateMatrix.Builder builder, Chunk chunk, RateMatrix matrix) {
+        for (int crypto = 0; crypto < matrix.getCryptoCount(); crypto++) {
+            for (int fiat = 0; fiat < matrix.getFiatCount(); fiat++) {
+                builder.set(chunk.getCryptoOffset() + crypto, chunk.getFiatOffset() + fiat, matrix.getScaled(crypto, fiat));
+            }
+        }
+    }
+
+    private static CustomizableThreadFactory createThreadFactory() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rate-fetch-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Chunk {
+
+        private final RateMatrix.Layout layout;
+        private final int cryptoOffset;
+        private final int fiatOffset;
+
+        @Override
+        public String toString() {
+            return layout.getCryptoCodes() + " x " + layout.getFiatCodes();
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package sk.glova.cryptowallet.services.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import sk.glova.cryptowallet.dao.RateHistoryStore;
+import sk.glova.cryptowallet.domain.event.RateSnapshotRefreshedEvent;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.response.Candle;
+import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.services.api.RateHistoryService;
+
+@Service
+@RequiredArgsConstructor
+public class RateHistoryServiceImpl implements RateHistoryService {
+
+    private final RateHistoryStore rateHistoryStore;
+    private final CurrencyService currencyService;
+
+    @Value("${rates.history.max-candles}")
+    private int maxCandles;
+
+    // every fetched snapshot is appended to the history
+    @EventListener
+    public void onRefresh(RateSnapshotRefreshedEvent event) {
+        final RateSnapshot snapshot = event.getCurrent();
+        final RateMatrix matrix = snapshot.getMatrix();
+        final long timestamp = snapshot.getFetchedAt().toEpochMilli();
+
+        for (int crypto = 0; crypto < matrix.getCryptoCount(); crypto++) {
+            for (int fiat = 0; fiat < matrix.getFiatCount(); fiat++) {
+                final long rate = matrix.getScaled(crypto, fiat);
+                if (rate != RateMatrix.MISSING) {
+                    rateHistoryStore.append(matrix.getCrypto(crypto), matrix.getFiat(fiat), timestamp, rate);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Candle> getCandles(String crypto, String fiat, Instant from, Instant to, Duration resolution) throws OperationNotAllowedException {
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+        final String cryptoCode = catalog.requireCrypto(crypto);
+        final String fiatCode = catalog.requireFiat(fiat);
+
+        if (!from.isBefore(to)) {
+            throw new OperationNotAllowedException("Provided time range is empty.");
+        }
+        if (resolution.isNegative() || resolution.isZero()) {
+            throw new OperationNotAllowedException("Provided resolution must be positive.");
+        }
+
+        final long step = resolution.toMillis();
+        final long start = Math.floorDiv(from.toEpochMilli(), step) * step;
+        final long end = to.toEpochMilli();
+
+        if ((end - start) / step >= maxCandles) {
+            throw new OperationNotAllowedException("Provided time range contains more than " + maxCandles + " candles.");
+        }
+
+        final CandleAggregator aggregator = new CandleAggregator(step);
+        rateHistoryStore.scan(cryptoCode, fiatCode, from.toEpochMilli(), end, aggregator::accept);
+        return aggregator.finish();
+    }
+
+    @Override
+    public RateSnapshot restoreLastSnapshot(long version) {
+        final RateMatrix.Layout layout = currencyService.getCatalog().getLayout();
+        final RateMatrix.Builder builder = RateMatrix.builder(layout);
+
+        final long[] lastTimestamp = {Long.MIN_VALUE};
+        rateHistoryStore.forEachLatest((crypto, fiat, timestamp, rate) -> {
+            final int cryptoOrdinal = layout.cryptoOrdinal(crypto);
+            final int fiatOrdinal = layout.fiatOrdinal(fiat);
+            if (cryptoOrdinal >= 0 && fiatOrdinal >= 0 && builder.set(cryptoOrdinal, fiatOrdinal, rate)) {
+                lastTimestamp[0] = Math.max(lastTimestamp[0], timestamp);
+            }
+        });
+
+        if (lastTimestamp[0] == Long.MIN_VALUE) {
+            return null;
+        }
+
+        return RateSnapshot.builder()
+            .version(version)
+            .fetchedAt(Instant.ofEpochMilli(lastTimestamp[0]))
+            .matrix(builder.build())
+            .restored(true)
+            .build();
+    }
+
+    /**
+     * Folds chronologically ordered points into candles, values are kept as fixed-point longs until the candle is finished.
+     */
+    private static final class CandleAggregator {
+
+        private final long step;
+        private final List<Candle> candles = new ArrayList<>();
+
+        private long bucket = Long.MIN_VALUE;
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+        private int count;
+
+        CandleAggregator(long step) {
+            this.step = step;
+        }
+
+        void accept(long timestamp, long rate) {
+            final long pointBucket = Math.floorDiv(timestamp, step) * step;
+
+            if (pointBucket != bucket) {
+                flush();
+                bucket = pointBucket;
+                open = rate;
+                high = rate;
+                low = rate;
+                count = 0;
+            }
+
+            high = Math.max(high, rate);
+            low = Math.min(low, rate);
+            close = rate;
+            count++;
+        }
+
+        List<Candle> finish() {
+            flush();
+            return candles;
+        }
+
+        private void flush() {
+            if (bucket == Long.MIN_VALUE) {
+                return;
+            }
+
+            candles.add(Candle.builder()
+                .time(Instant.ofEpochMilli(bucket))
+                .open(RateMatrix.toDecimal(open))
+                .high(RateMatrix.toDecimal(high))
+                .low(RateMatrix.toDecimal(low))
+                .close(RateMatrix.toDecimal(close))
+                .count(count)
+                .build());
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package sk.glova.cryptowallet.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import sk.glova.cryptowallet.config.CacheFactory;
+import sk.glova.cryptowallet.domain.event.RateSnapshotRefreshedEvent;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.request.RateFilter;
+import sk.glova.cryptowallet.domain.response.SerializedRatePage;
+import sk.glova.cryptowallet.services.api.RatePageService;
+import sk.glova.cryptowallet.services.api.RateService;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.utils.StaleRates;
+
+@Service
+public class RatePageServiceImpl implements RatePageService {
+
+    public static final String RATE_PAGES = "rate-pages";
+
+    private final RateSnapshotService rateSnapshotService;
+    private final RateService rateService;
+    private final ObjectMapper objectMapper;
+    private final long staleAfter;
+
+    // bounded by caches.specs.rate-pages, so clients asking for many distinct pages can not exhaust memory
+    private final Cache<PageKey, SerializedRatePage> pages;
+
+    public RatePageServiceImpl(
+        RateSnapshotService rateSnapshotService,
+        RateService rateService,
+        ObjectMapper objectMapper,
+        CacheFactory cacheFactory,
+        @Value("${rates.stale-after}") long staleAfter
+    ) {
+        this.rateSnapshotService = rateSnapshotService;
+        this.rateService = rateService;
+        this.objectMapper = objectMapper;
+        this.staleAfter = staleAfter;
+        this.pages = cacheFactory.create(RATE_PAGES);
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    @Override
+    public SerializedRatePage getPage(RateFilter filter, Pageable pageable) {
+        final RateSnapshot snapshot = getSnapshot();
+        final PageKey key = new PageKey(snapshot.getVersion(), filter, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+
+        // concurrent requests for the same page wait for one serialization, invalid requests (e.g. unsupported sort) are not cached
+        return pages.get(key, missing -> serialize(snapshot, filter, pageable));
+    }
+
+    // pages of older snapshots will never be asked for again
+    @EventListener
+    public void onSnapshotRefreshed(RateSnapshotRefreshedEvent event) {
+        final long version = event.getCurrent().getVersion();
+        pages.asMap().keySet().removeIf(key -> key.version < version);
+    }
+
+    private RateSnapshot getSnapshot() {
+        final RateSnapshot snapshot = rateSnapshotService.getSnapshot();
+
+        // refresh keeps failing, flag the response as served from last known rates
+        if (snapshot.getAge().toMillis() > staleAfter) {
+            StaleRates.mark(snapshot.getFetchedAt());
+        }
+
+        return snapshot;
+    }
+
+    private SerializedRatePage serialize(RateSnapshot snapshot, RateFilter filter, Pageable pageable) {
+        final byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(rateService.getRates(snapshot, filter, pageable));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Rate page can not be serialized.", ex);
+        }
+
+        return SerializedRatePage.builder()
+            .version(snapshot.getVersion())
+            .json(json)
+            .gzip(gzip(json))
+            .build();
+    }
+
+    private static byte[] gzip(byte[] data) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+
+        private final long version;
+        private final RateFilter filter;
+        private final int page;
+        private final int size;
+        private final Sort sort;
+
+    }
+
+}
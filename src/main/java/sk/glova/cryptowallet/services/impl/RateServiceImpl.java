@@ -1,83 +1,119 @@
 package sk.glova.cryptowallet.services.impl;
 
-import static org.springframework.http.HttpMethod.GET;
-
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import sk.glova.cryptowallet.domain.model.CryptoCurrencyRate;
-import sk.glova.cryptowallet.domain.model.SupportedCurrency;
-import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.domain.model.CryptoCurrencyRateComparators;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.request.RateFilter;
 import sk.glova.cryptowallet.services.api.RateService;
 
 @Service
-@RequiredArgsConstructor
 public class RateServiceImpl implements RateService {
 
-    private final RestTemplate restTemplate;
-    private final CurrencyService currencyService;
-
-    @Value("${external.api.multi-url}")
-    private String url;
+    // partial selection pays off only when the requested window is a small part of the whole list
+    private static final int TOP_K_RATIO = 4;
 
     @Override
-    public Page<CryptoCurrencyRate> getRates(Pageable pageable) {
-        // Fetch map from external api
-        Map<String, Map<String, BigDecimal>> map = getMapFromApi();
+    public Page<CryptoCurrencyRate> getRates(RateSnapshot snapshot, RateFilter filter, Pageable pageable) {
+        final RateMatrix matrix = snapshot.getMatrix();
 
-        // Prepare for pagination
-        final int start = (int) pageable.getOffset();
-        assert map != null;
-        final int end = Math.min((start + pageable.getPageSize()), map.size());
+        // Resolve comparator first, so that invalid sort is rejected without any further work
+        final Comparator<CryptoCurrencyRate> comparator = pageable.getSort().isSorted()
+            ? CryptoCurrencyRateComparators.of(pageable.getSort(), matrix.getLayout().getFiatCodes())
+            : null;
+
+        // Wrap requested matrix rows into lightweight views projected to requested fiats, rates themselves stay in the matrix
+        final List<CryptoCurrencyRate> cryptoCurrencyRates = transformToListOfRates(matrix, filter);
 
-        // Transform map of currencies into list of objects CryptoCurrencyRate
-        final List<CryptoCurrencyRate> cryptoCurrencyRates = transformToListOfRates(map);
+        // Prepare for pagination
+        final int start = (int) Math.min(pageable.getOffset(), cryptoCurrencyRates.size());
+        final int end = Math.min((start + pageable.getPageSize()), cryptoCurrencyRates.size());
 
-        // Sort if it is declared in Pageable object
-        pageable.getSort().forEach(order -> sort(cryptoCurrencyRates, order));
+        // Sort if it is declared in Pageable object, only the first `end` items have to be in order
+        final List<CryptoCurrencyRate> sorted = comparator != null ? sort(cryptoCurrencyRates, comparator, end) : cryptoCurrencyRates;
 
         // Paginate list
-        return new PageImpl<>(cryptoCurrencyRates.subList(start, end), pageable, cryptoCurrencyRates.size());
+        return new PageImpl<>(sorted.subList(start, end), pageable, cryptoCurrencyRates.size());
     }
 
-    private Map<String, Map<String, BigDecimal>> getMapFromApi() {
-        final String fsyms = currencyService.getAllSupportedCryptoCurrencies()
-            .stream()
-            .map(SupportedCurrency::getCode)
-            .collect(Collectors.joining(","));
-
-        final String tsyms = currencyService.getAllSupportedCurrencies()
-            .stream()
-            .map(SupportedCurrency::getCode)
-            .collect(Collectors.joining(","));
+    private List<CryptoCurrencyRate> transformToListOfRates(RateMatrix matrix, RateFilter filter) {
+        final int[] fiatOrdinals = filter.getFiats().isEmpty() ? null : toOrdinals(filter.getFiats(), matrix::fiatOrdinal);
+
+        if (filter.getSymbols().isEmpty()) {
+            final List<CryptoCurrencyRate> rates = new ArrayList<>(matrix.getCryptoCount());
+            for (int row = 0; row < matrix.getCryptoCount(); row++) {
+                if (matrix.hasRow(row)) {
+                    rates.add(new CryptoCurrencyRate(matrix, row, fiatOrdinals));
+                }
+            }
+            return rates;
+        }
+
+        // only requested rows are read
+        final int[] rows = toOrdinals(filter.getSymbols(), matrix::cryptoOrdinal);
+        final List<CryptoCurrencyRate> rates = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            if (matrix.hasRow(row)) {
+                rates.add(new CryptoCurrencyRate(matrix, row, fiatOrdinals));
+            }
+        }
+        return rates;
+    }
 
-        return restTemplate
-            .exchange(url, GET, null, new ParameterizedTypeReference<Map<String, Map<String, BigDecimal>>>() {}, fsyms, tsyms)
-            .getBody();
+    /**
+     * Resolves codes to matrix ordinals in ascending order (the order of unfiltered result), unknown codes are skipped.
+     */
+    private static int[] toOrdinals(Set<String> codes, ToIntFunction<String> ordinal) {
+        return codes.stream()
+            .mapToInt(ordinal)
+            .filter(i -> i >= 0)
+            .sorted()
+            .toArray();
     }
 
-    private List<CryptoCurrencyRate> transformToListOfRates(Map<String, Map<String, BigDecimal>> map) {
-        return map.keySet()
-            .stream()
-            .map(key -> CryptoCurrencyRate.builder()
-                .name(key)
-                .currencyRates(map.get(key))
-                .build())
-            .collect(Collectors.toList());
+    private List<CryptoCurrencyRate> sort(List<CryptoCurrencyRate> rates, Comparator<CryptoCurrencyRate> comparator, int k) {
+        if ((long) k * TOP_K_RATIO >= rates.size()) {
+            rates.sort(comparator);
+            return rates;
+        }
+
+        return selectTopK(rates, comparator, k);
     }
 
-    private void sort(List<CryptoCurrencyRate> cryptoCurrencyRates, Sort.Order order) {
-        cryptoCurrencyRates.sort(new CryptoCurrencyRate.Comparator(order.getProperty(), order.getDirection().name()));
+    /**
+     * Returns the first k items of the list in the order of given comparator without sorting the whole list - O(n log k) instead of O(n log n).
+     */
+    private List<CryptoCurrencyRate> selectTopK(List<CryptoCurrencyRate> rates, Comparator<CryptoCurrencyRate> comparator, int k) {
+        if (k == 0) {
+            return Collections.emptyList();
+        }
+
+        // max-heap of the best k items seen so far, the worst one of them is on top
+        final PriorityQueue<CryptoCurrencyRate> heap = new PriorityQueue<>(k, comparator.reversed());
+
+        for (CryptoCurrencyRate rate : rates) {
+            if (heap.size() < k) {
+                heap.add(rate);
+            } else if (comparator.compare(rate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(rate);
+            }
+        }
+
+        final List<CryptoCurrencyRate> top = new ArrayList<>(heap);
+        top.sort(comparator);
+        return top;
     }
 
 }
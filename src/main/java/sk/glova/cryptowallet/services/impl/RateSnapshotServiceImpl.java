@@ -0,0 +1,174 @@
+package sk.glova.cryptowallet.services.impl;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import sk.glova.cryptowallet.domain.event.CurrencyCatalogChangedEvent;
+import sk.glova.cryptowallet.domain.event.RateSnapshotRefreshedEvent;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
+import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.services.api.RateHistoryService;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateSnapshotServiceImpl implements RateSnapshotService {
+
+    private final RateFetchPlanner rateFetchPlanner;
+    private final CurrencyService currencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RateHistoryService rateHistoryService;
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean revalidationQueued = new AtomicBoolean();
+    private final Object initialLoadLock = new Object();
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor(createThreadFactory());
+
+    @Value("${rates.stale-after}")
+    private long staleAfter;
+
+    @Value("${rates.max-stale}")
+    private long maxStale;
+
+    @Value("${rates.max-stale-restored}")
+    private long maxStaleRestored;
+
+    @Override
+    public RateSnapshot getSnapshot() {
+        final RateSnapshot current = snapshot.get();
+
+        // cold start - there is nothing stale to serve yet
+        if (current == null) {
+            return loadInitialSnapshot();
+        }
+
+        // stale-while-revalidate - serve what we have and let the background thread catch up
+        if (current.getAge().toMillis() > staleAfter && revalidationQueued.compareAndSet(false, true)) {
+            revalidator.execute(this::revalidate);
+        }
+
+        // last known rates are served only within the staleness bound, no rates are better than wrong rates (rates restored after downtime
+        // are older from the very start, so they have their own bound)
+        if (current.getAge().toMillis() > (current.isRestored() ? maxStaleRestored : maxStale)) {
+            throw new RateUnavailableException("Rates are not available, the last known rates were fetched at " + current.getFetchedAt() + ".");
+        }
+
+        return current;
+    }
+
+    @Override
+    public void refresh() {
+        // collapse concurrent refreshes (scheduler + revalidation) into one upstream call
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            install(fetchSnapshot());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    // the first snapshot is loaded once the application is ready (supported currencies are loaded by then), the scheduler takes over later
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // last known rates from disk are served until the external api answers
+        final RateSnapshot restored = rateHistoryService.restoreLastSnapshot(version.incrementAndGet());
+        if (restored != null) {
+            install(restored);
+            log.info("Restored rate snapshot fetched at {}", restored.getFetchedAt());
+        }
+
+        revalidator.execute(this::refreshQuietly);
+    }
+
+    // rates of added currencies are fetched right away instead of waiting for the next scheduled refresh
+    @EventListener
+    public void onCurrencyCatalogChanged(CurrencyCatalogChangedEvent event) {
+        revalidator.execute(this::refreshQuietly);
+    }
+
+    @Scheduled(fixedDelayString = "${rates.refresh-interval}", initialDelayString = "${rates.refresh-interval}")
+    public void scheduledRefresh() {
+        refreshQuietly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revalidator.shutdownNow();
+    }
+
+    private void revalidate() {
+        revalidationQueued.set(false);
+        refreshQuietly();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            final RateSnapshot current = snapshot.get();
+            log.warn("Rate refresh failed, serving snapshot version {}: {}", current == null ? "none" : current.getVersion(), ex.getMessage());
+        }
+    }
+
+    private RateSnapshot loadInitialSnapshot() {
+        synchronized (initialLoadLock) {
+            final RateSnapshot current = snapshot.get();
+            return current != null ? current : install(fetchSnapshot());
+        }
+    }
+
+    private RateSnapshot install(RateSnapshot fetched) {
+        // never replace a newer snapshot with an older one when the initial load races with the scheduler
+        final RateSnapshot previous = snapshot.getAndAccumulate(fetched, (prev, next) -> prev == null || prev.getVersion() < next.getVersion() ? next : prev);
+
+        if (previous != null && previous.getVersion() >= fetched.getVersion()) {
+            return previous;
+        }
+
+        eventPublisher.publishEvent(new RateSnapshotRefreshedEvent(previous, fetched));
+        return fetched;
+    }
+
+    private RateSnapshot fetchSnapshot() {
+        // layout instance (and so its ordinals) is shared by all snapshots of the same currency catalog
+        final RateMatrix.Layout layout = currencyService.getCatalog().getLayout();
+
+        final RateMatrix matrix = circuitBreaker.call(() -> rateFetchPlanner.fetch(layout));
+
+        return RateSnapshot.builder()
+            .version(version.incrementAndGet())
+            .fetchedAt(Instant.now())
+            .matrix(matrix)
+            .build();
+    }
+
+    private static CustomizableThreadFactory createThreadFactory() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rate-revalidator-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+}
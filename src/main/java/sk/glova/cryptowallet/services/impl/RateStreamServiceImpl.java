@@ -0,0 +1,309 @@
+package sk.glova.cryptowallet.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+import sk.glova.cryptowallet.domain.event.RateSnapshotRefreshedEvent;
+import sk.glova.cryptowallet.domain.model.CryptoCurrencyRate;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.request.RateFilter;
+import sk.glova.cryptowallet.domain.response.RateStreamEvent;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.services.api.RateStreamService;
+
+@Slf4j
+@Service
+public class RateStreamServiceImpl implements RateStreamService {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String UPDATE_EVENT = "update";
+
+    /**
+     * What happens when subscriber does not keep up and its queue is full.
+     */
+    enum OverflowPolicy {
+        // subscriber is disconnected, client is expected to reconnect
+        DISCONNECT,
+        // pending updates are dropped and replaced by one full snapshot
+        RESYNC
+    }
+
+    private final RateSnapshotService rateSnapshotService;
+    private final long timeout;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ExecutorService dispatcher;
+    private final Counter overflows;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public RateStreamServiceImpl(
+        RateSnapshotService rateSnapshotService,
+        MeterRegistry meterRegistry,
+        @Value("${rates.stream.timeout}") long timeout,
+        @Value("${rates.stream.queue-capacity}") int queueCapacity,
+        @Value("${rates.stream.overflow-policy}") OverflowPolicy overflowPolicy,
+        @Value("${rates.stream.dispatch-threads}") int dispatchThreads
+    ) {
+        this.rateSnapshotService = rateSnapshotService;
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rate-stream-");
+        threadFactory.setDaemon(true);
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, threadFactory);
+
+        this.overflows = meterRegistry.counter("rates.stream.overflows", "policy", overflowPolicy.name());
+        meterRegistry.gaugeCollectionSize("rates.stream.subscribers", Collections.emptyList(), subscribers);
+    }
+
+    @Override
+    public SseEmitter subscribe(Set<String> symbols, Set<String> fiats) {
+        // codes are normalized exactly like the filter of the rate pages
+        final RateFilter filter = RateFilter.of(symbols, fiats);
+        final Subscriber subscriber = new Subscriber(new SseEmitter(timeout), filter.getSymbols(), filter.getFiats());
+        final SseEmitter emitter = subscriber.emitter;
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+
+        // snapshot goes first, so that no update can overtake it
+        final RateSnapshot snapshot = rateSnapshotService.getSnapshot();
+        subscriber.offer(snapshotEvent(snapshot, subscriber), snapshot);
+        subscribers.add(subscriber);
+
+        // update of a refresh installed before the subscriber was added would be missed, the full state is sent again instead
+        try {
+            final RateSnapshot latest = rateSnapshotService.getSnapshot();
+            if (latest.getVersion() != snapshot.getVersion()) {
+                subscriber.offer(snapshotEvent(latest, subscriber), latest);
+            }
+        } catch (RateUnavailableException ex) {
+            log.debug("Rates became unavailable while subscribing, the first snapshot is kept: {}", ex.getMessage());
+        }
+
+        return emitter;
+    }
+
+    @EventListener
+    public void onRefresh(RateSnapshotRefreshedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // the diff is computed once and only filtered per subscriber
+        final RateSnapshot current = event.getCurrent();
+        final Map<String, Map<String, BigDecimal>> changes = diff(event.getPrevious(), current);
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            final Map<String, Map<String, BigDecimal>> filtered = subscriber.filter(changes);
+            if (!filtered.isEmpty()) {
+                subscriber.offer(event(UPDATE_EVENT, current, filtered), current);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        dispatcher.shutdownNow();
+    }
+
+    private SseEventBuilder snapshotEvent(RateSnapshot snapshot, Subscriber subscriber) {
+        return event(SNAPSHOT_EVENT, snapshot, subscriber.filter(toMap(snapshot.getMatrix())));
+    }
+
+    private static SseEventBuilder event(String name, RateSnapshot snapshot, Map<String, Map<String, BigDecimal>> rates) {
+        final RateStreamEvent data = RateStreamEvent.builder()
+            .version(snapshot.getVersion())
+            .fetchedAt(snapshot.getFetchedAt())
+            .rates(rates)
+            .build();
+
+        return SseEmitter.event()
+            .id(String.valueOf(snapshot.getVersion()))
+            .name(name)
+            .data(data);
+    }
+
+    /**
+     * Returns rates which are new or differ from the previous snapshot. Cells are compared as fixed-point longs, only changed ones are boxed.
+     */
+    private static Map<String, Map<String, BigDecimal>> diff(RateSnapshot previous, RateSnapshot current) {
+        final RateMatrix matrix = current.getMatrix();
+
+        if (previous == null) {
+            return toMap(matrix);
+        }
+
+        final RateMatrix previousMatrix = previous.getMatrix();
+        final boolean sameLayout = previousMatrix.getLayout() == matrix.getLayout();
+        final Map<String, Map<String, BigDecimal>> changes = new HashMap<>();
+
+        for (int crypto = 0; crypto < matrix.getCryptoCount(); crypto++) {
+            for (int fiat = 0; fiat < matrix.getFiatCount(); fiat++) {
+                final long rate = matrix.getScaled(crypto, fiat);
+                if (rate == RateMatrix.MISSING) {
+                    continue;
+                }
+
+                final long previousRate = sameLayout
+                    ? previousMatrix.getScaled(crypto, fiat)
+                    : scaledOrMissing(previousMatrix, matrix.getCrypto(crypto), matrix.getFiat(fiat));
+
+                if (previousRate != rate) {
+                    changes.computeIfAbsent(matrix.getCrypto(crypto), key -> new HashMap<>()).put(matrix.getFiat(fiat), RateMatrix.toDecimal(rate));
+                }
+            }
+        }
+
+        return changes;
+    }
+
+    private static long scaledOrMissing(RateMatrix matrix, String crypto, String fiat) {
+        final int cryptoOrdinal = matrix.cryptoOrdinal(crypto);
+        final int fiatOrdinal = matrix.fiatOrdinal(fiat);
+        return cryptoOrdinal < 0 || fiatOrdinal < 0 ? RateMatrix.MISSING : matrix.getScaled(cryptoOrdinal, fiatOrdinal);
+    }
+
+    private static Map<String, Map<String, BigDecimal>> toMap(RateMatrix matrix) {
+        final Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+
+        for (int crypto = 0; crypto < matrix.getCryptoCount(); crypto++) {
+            if (matrix.hasRow(crypto)) {
+                rates.put(matrix.getCrypto(crypto), new CryptoCurrencyRate(matrix, crypto).getCurrencyRates());
+            }
+        }
+
+        return rates;
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        // empty set means no filter
+        private final Set<String> symbols;
+        private final Set<String> fiats;
+
+        private final BlockingQueue<SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<String> symbols, Set<String> fiats) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+            this.fiats = fiats;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        Map<String, Map<String, BigDecimal>> filter(Map<String, Map<String, BigDecimal>> rates) {
+            if (symbols.isEmpty() && fiats.isEmpty()) {
+                return rates;
+            }
+
+            final Map<String, Map<String, BigDecimal>> filtered = new HashMap<>();
+
+            rates.forEach((crypto, row) -> {
+                if (!symbols.isEmpty() && !symbols.contains(crypto)) {
+                    return;
+                }
+
+                final Map<String, BigDecimal> filteredRow = fiats.isEmpty() ? row : row.entrySet()
+                    .stream()
+                    .filter(entry -> fiats.contains(entry.getKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+                if (!filteredRow.isEmpty()) {
+                    filtered.put(crypto, filteredRow);
+                }
+            });
+
+            return filtered;
+        }
+
+        /**
+         * @param snapshot snapshot of the event, its full state is sent instead of pending events when the queue overflows
+         */
+        void offer(SseEventBuilder event, RateSnapshot snapshot) {
+            if (closed) {
+                return;
+            }
+
+            if (!queue.offer(event)) {
+                overflows.increment();
+
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    log.debug("Disconnecting slow rate stream subscriber");
+                    close();
+                    return;
+                }
+
+                // everything pending is superseded by the full current state
+                queue.clear();
+                queue.offer(snapshotEvent(snapshot, this));
+            }
+
+            scheduleDrain();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            emitter.complete();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            // an event could have been offered after the loop ended but before the flag was reset
+            if (!closed && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+    }
+
+}
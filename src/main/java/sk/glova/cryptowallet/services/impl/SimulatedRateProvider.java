@@ -0,0 +1,145 @@
+package sk.glova.cryptowallet.services.impl;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.services.api.RateProvider;
+
+/**
+ * In-process simulated market for load tests and offline runs. Crypto-currency prices move by geometric random walk in time, fiat currencies
+ * have fixed exchange rates. Every call is delayed by configured latency and jitter and fails with configured probability, the same way as
+ * calls of the external API would.
+ */
+@Service
+@ConditionalOnProperty(name = "rates.provider", havingValue = "simulated")
+public class SimulatedRateProvider implements RateProvider {
+
+    // starting prices of crypto-currencies in USD
+    private static final Map<String, Double> INITIAL_PRICES = Map.of(
+        "BTC", 50000d, "ETH", 3000d, "LTC", 150d, "ADA", 1.2, "DOT", 20d,
+        "BCH", 500d, "XLM", 0.3, "BNB", 400d, "USDT", 1d, "XMR", 250d);
+
+    // units of the fiat currency per one USD
+    private static final Map<String, Double> FIAT_RATES = Map.of(
+        "USD", 1d, "EUR", 0.9, "AUD", 1.4, "CZK", 22d, "JPY", 110d,
+        "RUB", 75d, "CNY", 6.5, "HRK", 6.7, "PLN", 3.9, "CHF", 0.95);
+
+    // starting price of crypto-currencies not listed above
+    private static final double DEFAULT_PRICE = 1;
+
+    private static final double SCALE_FACTOR = Math.pow(10, RateMatrix.SCALE);
+    private static final MathContext PRECISION = new MathContext(12);
+
+    private final long latency;
+    private final long jitter;
+    private final double errorRate;
+    private final double volatility;
+
+    // guarded by this
+    private final Random random;
+    private final Map<String, Double> prices = new HashMap<>(INITIAL_PRICES);
+    private long lastMove = System.nanoTime();
+
+    public SimulatedRateProvider(
+        @Value("${rates.simulated.latency}") long latency,
+        @Value("${rates.simulated.jitter}") long jitter,
+        @Value("${rates.simulated.error-rate}") double errorRate,
+        @Value("${rates.simulated.volatility}") double volatility,
+        @Value("${rates.simulated.seed}") long seed
+    ) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.volatility = volatility;
+        this.random = seed != 0 ? new Random(seed) : new Random();
+    }
+
+    @Override
+    public RateMatrix getRates(RateMatrix.Layout layout) {
+        simulateCall();
+
+        // rows and columns can be any codes (e.g. batched pair lookups), rate is a ratio of their USD prices
+        final List<String> rows = layout.getCryptoCodes();
+        final List<String> codes = new ArrayList<>(rows);
+        codes.addAll(layout.getFiatCodes());
+
+        final double[] usdPrices = getPrices(codes);
+        final RateMatrix.Builder builder = RateMatrix.builder(layout);
+
+        for (int row = 0; row < rows.size(); row++) {
+            for (int column = rows.size(); column < usdPrices.length; column++) {
+                builder.set(row, column - rows.size(), Math.round(usdPrices[row] / usdPrices[column] * SCALE_FACTOR));
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public BigDecimal getRate(String currencyFrom, String currencyTo) {
+        simulateCall();
+
+        final double[] usdPrices = getPrices(List.of(currencyFrom, currencyTo));
+        return new BigDecimal(usdPrices[0] / usdPrices[1], PRECISION);
+    }
+
+    /**
+     * Moves the market to the current time and returns USD prices of given currencies.
+     */
+    private synchronized double[] getPrices(List<String> codes) {
+        move();
+
+        final double[] usdPrices = new double[codes.size()];
+        for (int i = 0; i < usdPrices.length; i++) {
+            final String code = codes.get(i);
+            final Double perUsd = FIAT_RATES.get(code);
+            usdPrices[i] = perUsd != null ? 1 / perUsd : prices.computeIfAbsent(code, unknown -> DEFAULT_PRICE);
+        }
+        return usdPrices;
+    }
+
+    // every price makes a step of geometric brownian motion (without drift) for the time elapsed since the last move
+    private void move() {
+        final long now = System.nanoTime();
+        final double elapsedSeconds = (now - lastMove) / 1e9;
+        lastMove = now;
+
+        if (elapsedSeconds <= 0 || volatility <= 0) {
+            return;
+        }
+
+        final double deviation = volatility * Math.sqrt(elapsedSeconds);
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            price.setValue(price.getValue() * Math.exp(deviation * random.nextGaussian() - deviation * deviation / 2));
+        }
+    }
+
+    private void simulateCall() {
+        final ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+        final long delay = latency + (jitter > 0 ? threadRandom.nextLong(jitter + 1) : 0);
+
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Simulated rate call was interrupted.");
+            }
+        }
+
+        if (errorRate > 0 && threadRandom.nextDouble() < errorRate) {
+            throw new ResourceAccessException("Simulated rate call failed.");
+        }
+    }
+
+}
@@ -1,56 +1,151 @@
 package sk.glova.cryptowallet.services.impl;
 
-import static org.springframework.http.HttpMethod.GET;
-
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import sk.glova.cryptowallet.dao.HoldingRepository;
 import sk.glova.cryptowallet.dao.WalletRepository;
 import sk.glova.cryptowallet.domain.model.Currency;
-import sk.glova.cryptowallet.domain.model.SupportedCurrency;
+import sk.glova.cryptowallet.domain.model.CurrencyCatalog;
+import sk.glova.cryptowallet.domain.model.CurrencyPair;
+import sk.glova.cryptowallet.domain.model.LedgerEntry;
 import sk.glova.cryptowallet.domain.model.Wallet;
 import sk.glova.cryptowallet.domain.request.AddRequest;
+import sk.glova.cryptowallet.domain.request.BatchTransferItem;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest;
+import sk.glova.cryptowallet.domain.request.BulkAddItem;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.request.BulkCreateWalletsRequest;
 import sk.glova.cryptowallet.domain.request.TransferRequest;
 import sk.glova.cryptowallet.domain.request.UpsertWalletRequest;
+import sk.glova.cryptowallet.domain.response.BatchTransferResponse;
+import sk.glova.cryptowallet.domain.response.BulkAddResponse;
+import sk.glova.cryptowallet.domain.response.BulkCreateWalletsResponse;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+import sk.glova.cryptowallet.domain.response.TransferResult;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
 import sk.glova.cryptowallet.exception.EntityNotFoundException;
 import sk.glova.cryptowallet.exception.OperationNotAllowedException;
+import sk.glova.cryptowallet.services.api.ConversionService;
 import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.services.api.LedgerService;
 import sk.glova.cryptowallet.services.api.WalletService;
+import sk.glova.cryptowallet.utils.RetryPolicy;
 
 @Service
 @RequiredArgsConstructor
 public class WalletServiceImpl implements WalletService {
 
-    private final RestTemplate restTemplate;
+    // names checked against DB by one query, so that a huge bulk does not produce a huge IN list
+    private static final int NAME_LOOKUP_CHUNK = 1000;
+    // names listed in the message of rejected bulk creation
+    private static final int REPORTED_NAMES = 10;
+
+    private final ConversionService conversionService;
     private final WalletRepository walletRepository;
+    private final HoldingRepository holdingRepository;
     private final CurrencyService currencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryPolicy walletUpdateRetryPolicy;
+    private final LedgerService ledgerService;
+
+    @Value("${wallets.batch.max-transfers}")
+    private int maxBatchTransfers;
+
+    @Value("${wallets.bulk.max-size}")
+    private int maxBulkSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
 
-    @Value("${external.api.single-url}")
-    private String url;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     @Transactional
-    public Wallet createWallet(UpsertWalletRequest request) throws OperationNotAllowedException {
+    public WalletResponse createWallet(UpsertWalletRequest request) throws OperationNotAllowedException {
         // this isn't necessary, but this use-case dont have owner in wallet, so name should be unique
         checkName(request.getName());
 
         Wallet wallet = Wallet.builder()
             .name(request.getName())
-            .currencies(new HashSet<>())
+            .holdings(new HashMap<>())
             .build();
 
-        return walletRepository.save(wallet);
+        return toResponse(walletRepository.save(wallet), List.of());
+    }
+
+    @Override
+    @Transactional
+    public BulkCreateWalletsResponse createWallets(BulkCreateWalletsRequest request) throws OperationNotAllowedException {
+        final List<String> names = request.getNames();
+        checkBulkSize(names);
+
+        // duplicates within the request first, then all names against DB by chunked IN queries instead of one query per name
+        final Set<String> distinct = new HashSet<>();
+        for (String name : names) {
+            if (name == null || name.length() == 0) {
+                throw new OperationNotAllowedException("Provided name was null or empty string.");
+            }
+            if (!distinct.add(name)) {
+                throw new OperationNotAllowedException("Wallet name [" + name + "] is provided more than once.");
+            }
+        }
+        final Set<String> existing = new TreeSet<>();
+        for (int from = 0; from < names.size(); from += NAME_LOOKUP_CHUNK) {
+            existing.addAll(walletRepository.findExistingNames(names.subList(from, Math.min(names.size(), from + NAME_LOOKUP_CHUNK))));
+        }
+        if (!existing.isEmpty()) {
+            throw new OperationNotAllowedException("Wallet name already exist: " + existing.stream().limit(REPORTED_NAMES).collect(Collectors.toList())
+                + (existing.size() > REPORTED_NAMES ? " and " + (existing.size() - REPORTED_NAMES) + " more." : "."));
+        }
+
+        // persistence context is flushed and cleared after every JDBC batch, so it does not grow with the bulk
+        bypassSecondLevelCache();
+        final List<Long> walletIds = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            // holdings are left null, an empty collection would be recreated (and soft-locked in the second-level cache) for every wallet
+            final Wallet wallet = Wallet.builder()
+                .name(names.get(i))
+                .build();
+            entityManager.persist(wallet);
+            walletIds.add(wallet.getId());
+
+            if ((i + 1) % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+
+        return BulkCreateWalletsResponse.builder()
+            .created(walletIds.size())
+            .walletIds(walletIds)
+            .build();
     }
 
     @Override
@@ -66,8 +161,10 @@ public class WalletServiceImpl implements WalletService {
 
     @Override
     @Transactional(readOnly = true)
-    public Wallet getWallet(Long walletId) throws EntityNotFoundException {
-        return findByIdOrThrow(walletId);
+    public WalletResponse getWallet(Long walletId) throws EntityNotFoundException {
+        // wallet and its holdings come from the second-level cache when present
+        final Wallet wallet = findByIdOrThrow(walletId);
+        return toResponse(wallet, wallet.getHoldings().values());
     }
 
     @Override
@@ -79,85 +176,301 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    @Transactional
     public void add(Long walletId, AddRequest addRequest) throws OperationNotAllowedException, EntityNotFoundException {
-        final Wallet wallet = findByIdOrThrow(walletId);
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+        final String walletCurrency = catalog.requireCrypto(addRequest.getCryptoCurrencyTo());
+        final String inputCurrency = catalog.requireFiat(addRequest.getFiatCurrencyFrom());
 
-        final String walletCurrency = sanitizeCurrency(addRequest.getCryptoCurrencyTo());
-        final String inputCurrency = sanitizeCurrency(addRequest.getFiatCurrencyFrom());
+        // resolve rate before the transaction is opened, so that DB connection is never held while waiting for it
+        final BigDecimal rate = conversionService.getConversionRate(inputCurrency, walletCurrency, addRequest.getMaxRateAge());
+        final BigDecimal addition = toAmount(addRequest.getAmount().multiply(rate));
 
-        checkCurrency(walletCurrency, currencyService.getAllSupportedCryptoCurrencies());
-        checkCurrency(inputCurrency, currencyService.getAllSupportedCurrencies());
+        // every attempt runs in a new transaction, so it re-reads the current amounts
+        walletUpdateRetryPolicy.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            final Wallet wallet = findByIdOrThrow(walletId);
 
-        final BigDecimal rate = getConversionRate(inputCurrency, walletCurrency);
-        final BigDecimal addition = addRequest.getAmount().multiply(rate);
+            doAdd(wallet, walletCurrency, addition, LedgerEntry.Type.ADD, null);
+        }));
+    }
 
-        doAdd(wallet, walletCurrency, addition);
+    @Override
+    public BulkAddResponse addToWallets(BulkAddRequest request) throws OperationNotAllowedException, EntityNotFoundException {
+        final List<BulkAddItem> additions = request.getAdditions();
+        checkBulkSize(additions);
+
+        // currencies and amounts are checked before the transaction is opened, additions are grouped by wallets ordered by ID
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+        final CurrencyPair[] pairs = new CurrencyPair[additions.size()];
+        final SortedMap<Long, List<Integer>> additionsByWallet = new TreeMap<>();
+        for (int i = 0; i < additions.size(); i++) {
+            final BulkAddItem addition = additions.get(i);
+            try {
+                pairs[i] = new CurrencyPair(catalog.requireFiat(addition.getFiatCurrencyFrom()), catalog.requireCrypto(addition.getCryptoCurrencyTo()));
+            } catch (OperationNotAllowedException ex) {
+                throw rejectedAddition(i, ex.getMessage());
+            }
+            if (addition.getAmount() == null || addition.getAmount().signum() <= 0) {
+                throw rejectedAddition(i, "Added amount has to be positive.");
+            }
+            if (addition.getWalletId() == null) {
+                throw new EntityNotFoundException("Wallet with given ID does not exist.");
+            }
+            additionsByWallet.computeIfAbsent(addition.getWalletId(), walletId -> new ArrayList<>()).add(i);
+        }
+
+        // resolve all rates from one snapshot before the transaction is opened, so that DB connection is never held while waiting for them
+        final Map<CurrencyPair, BigDecimal> rates = conversionService.getConversionRates(Arrays.asList(pairs), request.getMaxRateAge());
+        final BigDecimal[] credits = new BigDecimal[additions.size()];
+        for (int i = 0; i < additions.size(); i++) {
+            credits[i] = toAmount(additions.get(i).getAmount().multiply(rates.get(pairs[i])));
+        }
+
+        // every attempt runs in a new transaction, so it re-reads the current amounts
+        final List<Long> walletIds = new ArrayList<>(additionsByWallet.keySet());
+        walletUpdateRetryPolicy.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            bypassSecondLevelCache();
+            // wallets with their holdings are loaded by one query per JDBC batch, the changes are flushed and the persistence context cleared
+            for (int from = 0; from < walletIds.size(); from += batchSize) {
+                final List<Long> chunk = walletIds.subList(from, Math.min(walletIds.size(), from + batchSize));
+                final List<Wallet> wallets = walletRepository.findWithHoldingsByIdIn(chunk);
+                if (wallets.size() != chunk.size()) {
+                    throw new EntityNotFoundException("Wallet with given ID does not exist.");
+                }
+
+                for (Wallet wallet : wallets) {
+                    for (int i : additionsByWallet.get(wallet.getId())) {
+                        doAdd(wallet, pairs[i].getCurrencyTo(), credits[i], LedgerEntry.Type.ADD, null);
+                    }
+                }
+                flushAndClear();
+            }
+        }));
+
+        return BulkAddResponse.builder()
+            .added(additions.size())
+            .wallets(walletIds.size())
+            .build();
     }
 
     @Override
-    @Transactional
     public void transfer(Long walletId, TransferRequest transferRequest) throws OperationNotAllowedException, EntityNotFoundException {
-        // check whether both Wallets exists
-        final Wallet walletFrom = findByIdOrThrow(walletId);
-        final Wallet walletTo = findByIdOrThrow(transferRequest.getDestinationWalletId());
+        // check whether there are specified supported currencies
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+        final String currencyTo = catalog.requireCrypto(transferRequest.getCryptoCurrencyTo());
+        final String currencyFrom = catalog.requireCrypto(transferRequest.getCryptoCurrencyFrom());
+
+        // resolve rate before the transaction is opened, so that DB connection is never held while waiting for it
+        final BigDecimal rate = conversionService.getConversionRate(currencyFrom, currencyTo, transferRequest.getMaxRateAge());
+
+        // every attempt runs in a new transaction, so the balance is checked against the current amount
+        walletUpdateRetryPolicy.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            // check whether both Wallets exists
+            final Wallet walletFrom = findByIdOrThrow(walletId);
+            final Wallet walletTo = findByIdOrThrow(transferRequest.getDestinationWalletId());
+
+            final String rejection = doTransfer(walletFrom, walletTo, currencyFrom, currencyTo, toAmount(transferRequest.getAmount()), rate);
+            if (rejection != null) {
+                throw new OperationNotAllowedException(rejection);
+            }
+        }));
+    }
 
-        final String currencyFrom = sanitizeCurrency(transferRequest.getCryptoCurrencyFrom());
-        final String currencyTo = sanitizeCurrency(transferRequest.getCryptoCurrencyTo());
+    @Override
+    public BatchTransferResponse transferBatch(BatchTransferRequest request) throws OperationNotAllowedException {
+        final List<BatchTransferItem> transfers = request.getTransfers();
+        if (transfers == null || transfers.isEmpty()) {
+            throw new OperationNotAllowedException("Batch does not contain any transfer.");
+        }
+        if (transfers.size() > maxBatchTransfers) {
+            throw new OperationNotAllowedException("Batch contains more than " + maxBatchTransfers + " transfers.");
+        }
+        final boolean atomic = request.getMode() != BatchTransferRequest.Mode.PER_ITEM;
+
+        // currencies and amounts are checked before the transaction is opened, rejected transfers have no pair
+        final CurrencyCatalog catalog = currencyService.getCatalog();
+        final CurrencyPair[] pairs = new CurrencyPair[transfers.size()];
+        final String[] rejections = new String[transfers.size()];
+        for (int i = 0; i < transfers.size(); i++) {
+            final BatchTransferItem transfer = transfers.get(i);
+            try {
+                final String currencyFrom = catalog.requireCrypto(transfer.getCryptoCurrencyFrom());
+                final String currencyTo = catalog.requireCrypto(transfer.getCryptoCurrencyTo());
+
+                if (transfer.getAmount() == null || transfer.getAmount().signum() <= 0) {
+                    rejections[i] = "Transferred amount has to be positive.";
+                } else {
+                    pairs[i] = new CurrencyPair(currencyFrom, currencyTo);
+                }
+            } catch (OperationNotAllowedException ex) {
+                rejections[i] = ex.getMessage();
+            }
+
+            if (rejections[i] != null && atomic) {
+                throw rejected(i, rejections[i]);
+            }
+        }
 
-        // check whether there are specified supported currencies
-        checkCurrency(currencyTo, currencyService.getAllSupportedCryptoCurrencies());
-        checkCurrency(currencyFrom, currencyService.getAllSupportedCryptoCurrencies());
+        // resolve all rates from one snapshot before the transaction is opened, so that DB connection is never held while waiting for them
+        final Map<CurrencyPair, BigDecimal> rates = conversionService.getConversionRates(
+            Arrays.stream(pairs).filter(Objects::nonNull).collect(Collectors.toList()), request.getMaxRateAge());
+
+        // every attempt runs in a new transaction, so it re-reads the current amounts and produces fresh results
+        return walletUpdateRetryPolicy.call(() -> transactionTemplate.execute(status -> {
+            // every involved wallet with its holdings in one query
+            final Set<Long> walletIds = new HashSet<>();
+            for (BatchTransferItem transfer : transfers) {
+                walletIds.add(transfer.getSourceWalletId());
+                walletIds.add(transfer.getDestinationWalletId());
+            }
+            walletIds.remove(null);
+            final Map<Long, Wallet> wallets = walletRepository.findWithHoldingsByIdIn(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+
+            // in the order of the request, the changed holdings are flushed ordered by ID, so concurrent batches lock them in the same order
+            final List<TransferResult> results = new ArrayList<>(transfers.size());
+            int applied = 0;
+            for (int i = 0; i < transfers.size(); i++) {
+                final BatchTransferItem transfer = transfers.get(i);
+                final Wallet walletFrom = wallets.get(transfer.getSourceWalletId());
+                final Wallet walletTo = wallets.get(transfer.getDestinationWalletId());
+
+                String rejection = rejections[i];
+                if (rejection == null && (walletFrom == null || walletTo == null)) {
+                    rejection = "Wallet with given ID does not exist.";
+                }
+                if (rejection == null) {
+                    final CurrencyPair pair = pairs[i];
+                    rejection = doTransfer(walletFrom, walletTo, pair.getCurrencyFrom(), pair.getCurrencyTo(), toAmount(transfer.getAmount()),
+                        rates.get(pair));
+                }
+
+                if (rejection == null) {
+                    applied++;
+                    results.add(TransferResult.builder().index(i).status(TransferResult.Status.APPLIED).build());
+                } else if (atomic) {
+                    throw rejected(i, rejection);
+                } else {
+                    results.add(TransferResult.builder().index(i).status(TransferResult.Status.REJECTED).message(rejection).build());
+                }
+            }
+
+            return BatchTransferResponse.builder()
+                .applied(applied)
+                .rejected(transfers.size() - applied)
+                .results(results)
+                .build();
+        }));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<WalletResponse> getWallets(Pageable pageable) {
+        final Page<Wallet> wallets = walletRepository.findAll(pageable);
+        if (wallets.isEmpty()) {
+            return wallets.map(wallet -> toResponse(wallet, List.of()));
+        }
 
+        final Map<Long, List<Currency>> holdings = holdingRepository.findByWalletIdIn(wallets.map(Wallet::getId).getContent())
+            .stream()
+            .collect(Collectors.groupingBy(holding -> holding.getWallet().getId()));
+
+        return wallets.map(wallet -> toResponse(wallet, holdings.getOrDefault(wallet.getId(), List.of())));
+    }
+
+    /**
+     * Moves given amount from one wallet into another, converted by given rate.
+     *
+     * @return reason of rejection or null when the transfer was applied, nothing is changed when it is rejected
+     */
+    private String doTransfer(Wallet walletFrom, Wallet walletTo, String currencyFrom, String currencyTo, BigDecimal amountForTransfer,
+        BigDecimal rate) {
         // check whether Wallet has open Account with specified currency
-        final Currency currency = walletFrom.getCurrencies().stream()
-            .filter(code -> code.getCode().equals(currencyFrom))
-            .findAny()
-            .orElseThrow(() -> new OperationNotAllowedException("Wallet does not have specified currency."));
+        final Currency currency = walletFrom.getHoldings().get(currencyFrom);
+        if (currency == null) {
+            return "Wallet does not have specified currency.";
+        }
 
         final BigDecimal oldAmount = currency.getAmount();
-        final BigDecimal amountForTransfer = transferRequest.getAmount();
 
         // check whether there is enough money for transaction
         if (oldAmount.compareTo(amountForTransfer) < 0) {
-            throw new OperationNotAllowedException("Wallet does not have enough amount in specified currency.");
+            return "Wallet does not have enough amount in specified currency.";
         }
 
         // subtract amount from walletFrom
         currency.setAmount(oldAmount.subtract(amountForTransfer));
+        ledgerService.record(currency, LedgerEntry.Type.TRANSFER_OUT, amountForTransfer.negate(), walletTo.getId());
 
         // add amount to walletTo
-        final BigDecimal rate = getConversionRate(currencyFrom, currencyTo);
-        final BigDecimal addition = transferRequest.getAmount().multiply(rate);
+        doAdd(walletTo, currencyTo, toAmount(amountForTransfer.multiply(rate)), LedgerEntry.Type.TRANSFER_IN, walletFrom.getId());
+        return null;
+    }
 
-        doAdd(walletTo, currencyTo, addition);
+    private static OperationNotAllowedException rejected(int index, String rejection) {
+        return new OperationNotAllowedException("Transfer [" + index + "] was rejected: " + rejection);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public Page<Wallet> getWallets(Pageable pageable) {
-        return walletRepository.findAll(pageable);
+    private static OperationNotAllowedException rejectedAddition(int index, String rejection) {
+        return new OperationNotAllowedException("Addition [" + index + "] was rejected: " + rejection);
+    }
+
+    private void checkBulkSize(List<?> items) throws OperationNotAllowedException {
+        if (items == null || items.isEmpty()) {
+            throw new OperationNotAllowedException("Bulk does not contain any item.");
+        }
+        if (items.size() > maxBulkSize) {
+            throw new OperationNotAllowedException("Bulk contains more than " + maxBulkSize + " items.");
+        }
+    }
+
+    // a bulk would evict the whole (bounded) second-level cache, its entities are not put there and stale entries are only invalidated
+    private void bypassSecondLevelCache() {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
     }
 
-    private void doAdd(Wallet wallet, String walletCurrency, BigDecimal addition) {
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void doAdd(Wallet wallet, String walletCurrency, BigDecimal addition, LedgerEntry.Type type, Long counterpartyWalletId) {
         // check whether exist currency
-        final Optional<Currency> any = wallet.getCurrencies().stream()
-            .filter(currency -> currency.getCode().equals(walletCurrency))
-            .findAny();
+        Currency currency = wallet.getHoldings().get(walletCurrency);
 
-        if (any.isPresent()) {
+        if (currency != null) {
             // increment existing currency
-            Currency currency = any.get();
-            BigDecimal amount = currency.getAmount();
-            currency.setAmount(amount.add(addition));
+            currency.setAmount(currency.getAmount().add(addition));
         } else {
-            // create new currency with specified amount
-            Currency currency = Currency.builder()
+            // create new currency with specified amount, persisted right away so that its ledger entry knows its ID
+            currency = Currency.builder()
                 .code(walletCurrency)
                 .amount(addition)
                 .build();
             wallet.addCurrency(currency);
+            entityManager.persist(currency);
         }
+
+        ledgerService.record(currency, type, addition, counterpartyWalletId);
+    }
+
+    private static WalletResponse toResponse(Wallet wallet, Collection<Currency> holdings) {
+        return WalletResponse.builder()
+            .id(wallet.getId())
+            .name(wallet.getName())
+            .currencies(holdings.stream()
+                .sorted(Comparator.comparing(Currency::getCode))
+                .map(holding -> HoldingResponse.builder()
+                    .id(holding.getId())
+                    .code(holding.getCode())
+                    .amount(holding.getAmount())
+                    .build())
+                .collect(Collectors.toList()))
+            .build();
+    }
+
+    // never credits more than was paid
+    private static BigDecimal toAmount(BigDecimal value) {
+        return value.setScale(Currency.AMOUNT_SCALE, RoundingMode.DOWN);
     }
 
     private void checkWalletExist(Long walletId) throws EntityNotFoundException {
@@ -175,22 +488,6 @@ public class WalletServiceImpl implements WalletService {
         }
     }
 
-    private void checkCurrency(String currency, List<SupportedCurrency> currencies) throws OperationNotAllowedException {
-        final String sanitizedCurrency = sanitizeCurrency(currency);
-
-        final boolean isNotSupported = currencies
-            .stream()
-            .noneMatch(curr -> curr.getCode().equals(sanitizedCurrency));
-
-        if (isNotSupported) {
-            throw new OperationNotAllowedException("Currency [" + sanitizedCurrency + "] is not supported.");
-        }
-    }
-
-    private String sanitizeCurrency(String currency) {
-        return currency.toUpperCase();
-    }
-
     private Wallet findByIdOrThrow(Long walletId) throws EntityNotFoundException {
         return walletRepository.findById(walletId)
             .orElseThrow(() -> new EntityNotFoundException("Wallet with given ID does not exist."));
@@ -204,11 +501,4 @@ public class WalletServiceImpl implements WalletService {
         checkName(newValue);
     }
 
-    private BigDecimal getConversionRate(String fsym, String tsyms) {
-        return Objects.requireNonNull(restTemplate
-            .exchange(url, GET, null, new ParameterizedTypeReference<Map<String, BigDecimal>>() {}, fsym, tsyms)
-            .getBody())
-            .get(tsyms);
-    }
-
 }
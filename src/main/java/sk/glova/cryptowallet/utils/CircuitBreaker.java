@@ -0,0 +1,177 @@
+package sk.glova.cryptowallet.utils;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import sk.glova.cryptowallet.exception.CircuitOpenException;
+
+/**
+ * Consecutive-failure circuit breaker. After failureThreshold failed calls in a row the circuit opens and calls are rejected without touching
+ * the protected resource. After openDuration one probe call is let through (half-open) - its success closes the circuit, its failure opens it
+ * again.
+ */
+public class CircuitBreaker {
+
+    private static final int KEPT_TRANSITIONS = 20;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Transition {
+
+        private final String name;
+        private final State from;
+        private final State to;
+        private final Instant at;
+
+    }
+
+    @Getter
+    private final String name;
+    private final int failureThreshold;
+    private final long openDuration;
+    private final Predicate<RuntimeException> isFailure;
+    private final Consumer<Transition> listener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+
+    /**
+     * @param name name of the protected resource
+     * @param failureThreshold number of consecutive failures opening the circuit
+     * @param openDuration how long (ms) the circuit stays open before a probe call is allowed
+     * @param isFailure decides whether exception thrown by the call counts as failure (e.g. client errors usually do not)
+     * @param listener notified about every state transition
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openDuration, Predicate<RuntimeException> isFailure, Consumer<Transition> listener) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.isFailure = isFailure;
+        this.listener = listener;
+    }
+
+    /**
+     * Executes the call when the circuit allows it.
+     *
+     * @throws CircuitOpenException when the circuit is open
+     */
+    public <T> T call(Supplier<T> call) throws CircuitOpenException {
+        acquirePermission();
+
+        final T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            if (isFailure.test(ex)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw ex;
+        } catch (Error err) {
+            // released probe is required for the circuit to ever close again
+            onFailure();
+            throw err;
+        }
+
+        onSuccess();
+        return result;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the latest state transitions, the oldest first
+     */
+    public synchronized List<Transition> getTransitions() {
+        return new ArrayList<>(transitions);
+    }
+
+    private void acquirePermission() {
+        final Transition transition;
+
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return;
+            }
+
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt < openDuration) {
+                throw new CircuitOpenException("Circuit breaker [" + name + "] is open.");
+            }
+
+            if (probeInFlight) {
+                throw new CircuitOpenException("Circuit breaker [" + name + "] is half-open, probe call is in progress.");
+            }
+
+            probeInFlight = true;
+            transition = state == State.OPEN ? transitionTo(State.HALF_OPEN) : null;
+        }
+
+        notifyListener(transition);
+    }
+
+    private void onSuccess() {
+        final Transition transition;
+
+        synchronized (this) {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            transition = state != State.CLOSED ? transitionTo(State.CLOSED) : null;
+        }
+
+        notifyListener(transition);
+    }
+
+    private void onFailure() {
+        final Transition transition;
+
+        synchronized (this) {
+            probeInFlight = false;
+            consecutiveFailures++;
+
+            final boolean open = state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold);
+            if (open) {
+                openedAt = System.currentTimeMillis();
+            }
+            transition = open ? transitionTo(State.OPEN) : null;
+        }
+
+        notifyListener(transition);
+    }
+
+    private Transition transitionTo(State newState) {
+        final Transition transition = new Transition(name, state, newState, Instant.now());
+        state = newState;
+
+        if (transitions.size() == KEPT_TRANSITIONS) {
+            transitions.removeFirst();
+        }
+        transitions.addLast(transition);
+
+        return transition;
+    }
+
+    // listener is called outside of the lock
+    private void notifyListener(Transition transition) {
+        if (transition != null) {
+            listener.accept(transition);
+        }
+    }
+
+}
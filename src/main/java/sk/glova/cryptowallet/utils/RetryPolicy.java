@@ -0,0 +1,89 @@
+package sk.glova.cryptowallet.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.Getter;
+
+/**
+ * Retries calls failed by a transient exception (e.g. lost optimistic lock) up to maxAttempts times. Before every retry the caller sleeps for
+ * a random time between 0 and the exponentially growing backoff ("full jitter"), so that conflicting callers do not collide again in lockstep.
+ */
+public class RetryPolicy {
+
+    @Getter
+    private final String name;
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Predicate<RuntimeException> isRetryable;
+    private final Consumer<RuntimeException> retryListener;
+    private final Function<RuntimeException, RuntimeException> exhaustedMapper;
+
+    /**
+     * @param name name of the retried operation
+     * @param maxAttempts maximal number of attempts including the first one
+     * @param initialBackoff upper bound (ms) of the sleep before the first retry, doubled for every next retry
+     * @param maxBackoff upper bound (ms) of the sleep before any retry
+     * @param isRetryable decides whether exception thrown by the call is worth retrying
+     * @param retryListener notified about every failure which is going to be retried
+     * @param exhaustedMapper maps the last retryable exception to the one thrown when all attempts failed
+     */
+    public RetryPolicy(String name, int maxAttempts, long initialBackoff, long maxBackoff, Predicate<RuntimeException> isRetryable,
+        Consumer<RuntimeException> retryListener, Function<RuntimeException, RuntimeException> exhaustedMapper) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Retry policy [" + name + "] needs at least one attempt.");
+        }
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.isRetryable = isRetryable;
+        this.retryListener = retryListener;
+        this.exhaustedMapper = exhaustedMapper;
+    }
+
+    /**
+     * Executes the call, every attempt has to be a self-contained unit of work (e.g. its own transaction).
+     */
+    public <T> T call(Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException ex) {
+                if (!isRetryable.test(ex)) {
+                    throw ex;
+                }
+                if (attempt == maxAttempts) {
+                    throw exhaustedMapper.apply(ex);
+                }
+                retryListener.accept(ex);
+                sleep(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private void sleep(int attempt) {
+        final long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 30));
+        if (backoff <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retry of [" + name + "] was interrupted.", ex);
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package sk.glova.cryptowallet.utils;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+import java.time.Instant;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Remembers for the current HTTP request that the response is computed from stale rates (rates served while the external API is not
+ * reachable). Calls outside of HTTP request (scheduler, background threads) are ignored.
+ */
+public class StaleRates {
+
+    private static final String ATTRIBUTE = StaleRates.class.getName() + ".FETCHED_AT";
+
+    /**
+     * Marks the current request as served from rates fetched at given time. When marked more than once, the oldest time is kept.
+     */
+    public static void mark(Instant fetchedAt) {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        final Instant marked = (Instant) attributes.getAttribute(ATTRIBUTE, SCOPE_REQUEST);
+        if (marked == null || fetchedAt.isBefore(marked)) {
+            attributes.setAttribute(ATTRIBUTE, fetchedAt, SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * @return fetch time of the oldest stale rates used by the current request, null when no stale rates were used
+     */
+    public static Instant getFetchedAt() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (Instant) attributes.getAttribute(ATTRIBUTE, SCOPE_REQUEST);
+    }
+
+}
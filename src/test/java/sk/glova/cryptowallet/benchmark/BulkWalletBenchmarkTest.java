@@ -0,0 +1,89 @@
+package sk.glova.cryptowallet.benchmark;
+
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.controllers.ControllerTest;
+import sk.glova.cryptowallet.domain.request.BulkAddItem;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.request.BulkCreateWalletsRequest;
+import sk.glova.cryptowallet.domain.response.BulkCreateWalletsResponse;
+
+/**
+ * Measures onboarding of wallets (create and fund with one currency) one request per wallet and by the bulk endpoints. Run with
+ * `mvn test -Pbenchmark`.
+ */
+@Slf4j
+@Tag("benchmark")
+class BulkWalletBenchmarkTest extends ControllerTest {
+
+    private static final int SINGLE_WALLETS = 2000;
+    private static final int BULK_WALLETS = 100000;
+
+    private final ObjectMapper objectMapper;
+
+    BulkWalletBenchmarkTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void onboardingThroughput() throws Exception {
+        // warm up both paths, so that neither of them pays for class loading and JIT
+        onboardOneByOne("Warm-up single ", SINGLE_WALLETS / 10);
+        onboardInBulk("Warm-up bulk ", SINGLE_WALLETS / 10);
+
+        final long single = onboardOneByOne("Single ", SINGLE_WALLETS);
+        final long bulk = onboardInBulk("Bulk ", BULK_WALLETS);
+
+        log.info("Onboarding one request per wallet: {} wallets/s ({} wallets)", SINGLE_WALLETS * 1000L / Math.max(single, 1), SINGLE_WALLETS);
+        log.info("Onboarding by bulk requests: {} wallets/s ({} wallets)", BULK_WALLETS * 1000L / Math.max(bulk, 1), BULK_WALLETS);
+    }
+
+    // returns elapsed ms
+    private long onboardOneByOne(String prefix, int wallets) throws Exception {
+        final long start = System.nanoTime();
+        for (int i = 0; i < wallets; i++) {
+            final Long walletId = createWalletAndReturnId(prefix + i);
+            call(POST, WALLET_URL + walletId + ADD, getAddRequest()).andExpect(status().isOk());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // returns elapsed ms
+    private long onboardInBulk(String prefix, int wallets) throws Exception {
+        final List<String> names = new ArrayList<>(wallets);
+        for (int i = 0; i < wallets; i++) {
+            names.add(prefix + i);
+        }
+
+        final long start = System.nanoTime();
+        final String content = call(POST, WALLET_URL + "bulk", BulkCreateWalletsRequest.builder().names(names).build())
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        final List<BulkAddItem> additions = new ArrayList<>(wallets);
+        for (Long walletId : objectMapper.readValue(content, BulkCreateWalletsResponse.class).getWalletIds()) {
+            additions.add(BulkAddItem.builder()
+                .walletId(walletId)
+                .fiatCurrencyFrom(ADD_FROM_CUR)
+                .cryptoCurrencyTo(ADD_TO_CUR)
+                .amount(DEFAULT_AMOUNT)
+                .build());
+        }
+        call(POST, WALLET_URL + "bulk/add", BulkAddRequest.builder().additions(additions).build()).andExpect(status().isOk());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
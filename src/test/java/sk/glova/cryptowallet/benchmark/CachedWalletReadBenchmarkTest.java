@@ -0,0 +1,18 @@
+package sk.glova.cryptowallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+class CachedWalletReadBenchmarkTest extends WalletReadBenchmark {
+
+    CachedWalletReadBenchmarkTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    @Override
+    String getVariant() {
+        return "second-level cache";
+    }
+
+}
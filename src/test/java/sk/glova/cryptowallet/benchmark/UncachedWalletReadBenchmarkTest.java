@@ -0,0 +1,23 @@
+package sk.glova.cryptowallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class UncachedWalletReadBenchmarkTest extends WalletReadBenchmark {
+
+    UncachedWalletReadBenchmarkTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    @Override
+    String getVariant() {
+        return "no second-level cache";
+    }
+
+}
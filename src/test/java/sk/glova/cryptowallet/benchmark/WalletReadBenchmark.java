@@ -0,0 +1,83 @@
+package sk.glova.cryptowallet.benchmark;
+
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.controllers.ControllerTest;
+import sk.glova.cryptowallet.domain.request.AddRequest;
+
+/**
+ * Measures throughput of GET wallet (the read-mostly request of our traffic) from concurrent clients. Run with `mvn test -Pbenchmark`, the
+ * subclasses differ only in the second-level cache being switched on or off.
+ */
+@Slf4j
+@Tag("benchmark")
+abstract class WalletReadBenchmark extends ControllerTest {
+
+    private static final int THREADS = 8;
+    private static final long WARM_UP_MILLIS = 3000;
+    private static final long MEASUREMENT_MILLIS = 10000;
+    private static final List<String> CRYPTOS = List.of("BTC", "ETH", "LTC", "ADA", "DOT");
+
+    WalletReadBenchmark(ObjectMapper objectMapper, MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    abstract String getVariant();
+
+    @Test
+    void getWalletThroughput() throws Exception {
+        final Long walletId = createWalletAndReturnId("Benchmark " + getVariant());
+        for (String crypto : CRYPTOS) {
+            final AddRequest addRequest = AddRequest.builder()
+                .fiatCurrencyFrom(ADD_FROM_CUR)
+                .amount(BigDecimal.TEN)
+                .cryptoCurrencyTo(crypto)
+                .build();
+            call(POST, WALLET_URL + walletId + ADD, addRequest).andExpect(status().isOk());
+        }
+
+        run(walletId, WARM_UP_MILLIS);
+        final long requests = run(walletId, MEASUREMENT_MILLIS);
+
+        log.info("GET wallet with {}: {} requests/s ({} threads)", getVariant(), requests * 1000 / MEASUREMENT_MILLIS, THREADS);
+    }
+
+    private long run(Long walletId, long millis) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+
+        final List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                long requests = 0;
+                while (System.nanoTime() < deadline) {
+                    call(GET, WALLET_URL + walletId).andExpect(status().isOk());
+                    requests++;
+                }
+                return requests;
+            }));
+        }
+
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+
+}
@@ -0,0 +1,132 @@
+package sk.glova.cryptowallet.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import sk.glova.cryptowallet.dao.CurrencyRepository;
+
+/**
+ * Loads catalogs written into a temporary directory, every test runs in a transaction which is rolled back, so the seeded currencies do not
+ * leak into other tests.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class DataLoaderTest {
+
+    private final DataLoader dataLoader;
+    // the bean is a transactional proxy, its configuration is in the target
+    private final DataLoader target;
+    private final CurrencyRepository currencyRepository;
+    private final String catalogLocation;
+
+    @TempDir
+    Path directory;
+
+    DataLoaderTest(@Autowired DataLoader dataLoader, @Autowired CurrencyRepository currencyRepository) {
+        this.dataLoader = dataLoader;
+        this.target = AopTestUtils.getTargetObject(dataLoader);
+        this.currencyRepository = currencyRepository;
+        this.catalogLocation = (String) ReflectionTestUtils.getField(target, "catalogLocation");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(target, "catalogLocation", catalogLocation);
+    }
+
+    @Test
+    @Transactional
+    void givenMalformedRow_whenRun_thenLineRejectedAndNothingSeeded() throws IOException {
+        givenCatalog("code,crypto\nAAA1,true\n\n# comment\nBBB1,maybe\n");
+
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, this::load);
+
+        assertTrue(ex.getMessage().startsWith("Invalid currency at line 5 of "), ex.getMessage());
+        assertTrue(ex.getMessage().endsWith("(crypto must be true or false): BBB1,maybe"), ex.getMessage());
+        assertFalse(currencyRepository.findAllCodes().contains("AAA1"));
+    }
+
+    @Test
+    @Transactional
+    void givenRowWithInvalidCode_whenRun_thenLineRejected() throws IOException {
+        givenCatalog("code,crypto\nA,true\n");
+
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, this::load);
+
+        assertTrue(ex.getMessage().contains("at line 2 of") && ex.getMessage().contains("code must consist of 2 to 10 letters or digits"),
+            ex.getMessage());
+    }
+
+    @Test
+    @Transactional
+    void givenRowWithMissingColumn_whenRun_thenLineRejected() throws IOException {
+        givenCatalog("code,crypto\nAAA1\n");
+
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, this::load);
+
+        assertTrue(ex.getMessage().contains("at line 2 of") && ex.getMessage().contains("expected 2 columns"), ex.getMessage());
+    }
+
+    @Test
+    @Transactional
+    void givenDuplicateCode_whenRun_thenCurrencySeededOnce() throws IOException {
+        givenCatalog("code,crypto\nAAA1,true\n aaa1 , TRUE \n");
+        final long count = currencyRepository.count();
+
+        load();
+
+        assertEquals(count + 1, currencyRepository.count());
+        assertTrue(currencyRepository.findAllCodes().contains("AAA1"));
+    }
+
+    @Test
+    @Transactional
+    void givenDuplicateCodeWithOtherCryptoFlag_whenRun_thenLineRejected() throws IOException {
+        givenCatalog("code,crypto\nAAA1,true\nAAA1,false\n");
+
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, this::load);
+
+        assertTrue(ex.getMessage().contains("at line 3 of") && ex.getMessage().contains("currency is already listed with the other crypto flag"),
+            ex.getMessage());
+    }
+
+    @Test
+    @Transactional
+    void givenLoadedCatalog_whenRunAgain_thenOnlyMissingCurrenciesSeeded() throws IOException {
+        // the default catalog is already seeded at startup
+        final long count = currencyRepository.count();
+        load();
+        assertEquals(count, currencyRepository.count());
+
+        givenCatalog("code,crypto\nBTC,true\nAAA1,true\nBBB1,false\n");
+        load();
+        load();
+
+        assertEquals(count + 2, currencyRepository.count());
+    }
+
+    private void givenCatalog(String content) throws IOException {
+        final Path catalog = Files.writeString(directory.resolve("currencies.csv"), content);
+        ReflectionTestUtils.setField(target, "catalogLocation", catalog.toUri().toString());
+    }
+
+    private void load() throws IOException {
+        dataLoader.run(new DefaultApplicationArguments());
+    }
+
+}
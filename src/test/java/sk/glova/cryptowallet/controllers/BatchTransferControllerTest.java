@@ -0,0 +1,159 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import sk.glova.cryptowallet.domain.request.BatchTransferItem;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest.Mode;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+
+/**
+ * Batch transfers are not transactional tests on purpose, rejected ATOMIC batch has to be rolled back by the service itself.
+ */
+class BatchTransferControllerTest extends ControllerTest {
+
+    private static final String TRANSFERS_URL = WALLET_URL + "transfers";
+
+    private final List<Long> walletIds = new ArrayList<>();
+
+    public BatchTransferControllerTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    // wallets are committed, so they would be listed by other tests
+    @AfterEach
+    void deleteWallets() throws Exception {
+        for (Long walletId : walletIds) {
+            call(DELETE, WALLET_URL + walletId).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void givenChainedTransfers_whenTransferBatch_thenAllAppliedInOrder() throws Exception {
+        final Long walletId1 = createFundedWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        final Long walletId3 = createWallet(WALLET_NAME + 3);
+        final BigDecimal amount = getAmount(walletId1);
+
+        // the second transfer spends what the first one credited
+        final ResultActions result = call(POST, TRANSFERS_URL, getBatch(null,
+            getItem(walletId1, walletId2, BigDecimal.ONE),
+            getItem(walletId2, walletId3, new BigDecimal("0.5"))));
+
+        result
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.applied", is(2)))
+            .andExpect(jsonPath("$.rejected", is(0)))
+            .andExpect(jsonPath("$.results[1].status", is("APPLIED")));
+
+        assertEquals(0, amount.subtract(BigDecimal.ONE).compareTo(getAmount(walletId1)));
+        assertEquals(0, new BigDecimal("0.5").compareTo(getAmount(walletId2)));
+        assertEquals(0, new BigDecimal("0.5").compareTo(getAmount(walletId3)));
+    }
+
+    @Test
+    void givenRejectedTransfer_whenTransferBatchAtomically_thenNothingApplied() throws Exception {
+        final Long walletId1 = createFundedWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        final BigDecimal amount = getAmount(walletId1);
+
+        final ResultActions result = call(POST, TRANSFERS_URL, getBatch(Mode.ATOMIC,
+            getItem(walletId1, walletId2, BigDecimal.ONE),
+            getItem(walletId2, walletId1, BigDecimal.TEN)));
+        checkOperationNotAllowedException(result, "Transfer [1] was rejected: Wallet does not have enough amount in specified currency.");
+
+        // the first transfer was rolled back together with the rejected one
+        assertEquals(0, amount.compareTo(getAmount(walletId1)));
+        assertTrue(getWallet(walletId2).getCurrencies().isEmpty());
+    }
+
+    @Test
+    void givenRejectedTransfers_whenTransferBatchPerItem_thenOthersApplied() throws Exception {
+        final Long walletId1 = createFundedWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        final BigDecimal amount = getAmount(walletId1);
+
+        final BatchTransferItem notSupported = getItem(walletId1, walletId2, BigDecimal.ONE);
+        notSupported.setCryptoCurrencyTo(NOT_SUPPORTED_CUR);
+
+        final ResultActions result = call(POST, TRANSFERS_URL, getBatch(Mode.PER_ITEM,
+            getItem(walletId1, walletId2, BigDecimal.ONE),
+            getItem(walletId2, walletId1, BigDecimal.TEN),
+            notSupported,
+            getItem(walletId1, Long.MAX_VALUE, BigDecimal.ONE)));
+
+        result
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.applied", is(1)))
+            .andExpect(jsonPath("$.rejected", is(3)))
+            .andExpect(jsonPath("$.results[0].status", is("APPLIED")))
+            .andExpect(jsonPath("$.results[0].message", nullValue()))
+            .andExpect(jsonPath("$.results[1].status", is("REJECTED")))
+            .andExpect(jsonPath("$.results[1].message", is("Wallet does not have enough amount in specified currency.")))
+            .andExpect(jsonPath("$.results[2].message", is("Currency [" + NOT_SUPPORTED_CUR + "] is not supported.")))
+            .andExpect(jsonPath("$.results[3].message", is("Wallet with given ID does not exist.")));
+
+        assertEquals(0, amount.subtract(BigDecimal.ONE).compareTo(getAmount(walletId1)));
+        assertEquals(0, BigDecimal.ONE.compareTo(getAmount(walletId2)));
+    }
+
+    @Test
+    void givenEmptyBatch_whenTransferBatch_thenOperationNotAllowedExceptionReturned() throws Exception {
+        final BatchTransferRequest request = BatchTransferRequest.builder().transfers(Collections.emptyList()).build();
+
+        checkOperationNotAllowedException(call(POST, TRANSFERS_URL, request), "Batch does not contain any transfer.");
+    }
+
+    private Long createWallet(String name) throws Exception {
+        final Long walletId = createWalletAndReturnId(name);
+        walletIds.add(walletId);
+        return walletId;
+    }
+
+    private Long createFundedWallet(String name) throws Exception {
+        final Long walletId = createWallet(name);
+        addIntoWallet(walletId);
+        return walletId;
+    }
+
+    private BigDecimal getAmount(Long walletId) throws Exception {
+        final List<HoldingResponse> holdings = getWallet(walletId).getCurrencies();
+        assertEquals(1, holdings.size());
+        return holdings.get(0).getAmount();
+    }
+
+    private static BatchTransferRequest getBatch(Mode mode, BatchTransferItem... transfers) {
+        return BatchTransferRequest.builder()
+            .mode(mode)
+            .transfers(List.of(transfers))
+            .build();
+    }
+
+    private static BatchTransferItem getItem(Long sourceWalletId, Long destinationWalletId, BigDecimal amount) {
+        return BatchTransferItem.builder()
+            .sourceWalletId(sourceWalletId)
+            .cryptoCurrencyFrom(ADD_TO_CUR)
+            .cryptoCurrencyTo(ADD_TO_CUR)
+            .amount(amount)
+            .destinationWalletId(destinationWalletId)
+            .build();
+    }
+
+}
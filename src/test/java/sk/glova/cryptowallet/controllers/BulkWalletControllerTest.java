@@ -0,0 +1,156 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+import sk.glova.cryptowallet.domain.request.BulkAddItem;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.request.BulkCreateWalletsRequest;
+import sk.glova.cryptowallet.domain.response.BulkCreateWalletsResponse;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
+
+class BulkWalletControllerTest extends ControllerTest {
+
+    private static final String BULK_URL = WALLET_URL + "bulk";
+    private static final String BULK_ADD_URL = BULK_URL + "/add";
+
+    private final ObjectMapper objectMapper;
+
+    public BulkWalletControllerTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+        this.objectMapper = objectMapper;
+    }
+
+    /* ---------------- CREATE WALLETS -------------- */
+
+    @Test
+    @Transactional
+    void givenUniqueNames_whenCreateWallets_thenAllWalletsCreated() throws Exception {
+        final List<Long> walletIds = createWallets(WALLET_NAME + 1, WALLET_NAME + 2, WALLET_NAME + 3);
+
+        assertEquals(3, walletIds.size());
+        for (int i = 0; i < walletIds.size(); i++) {
+            final WalletResponse wallet = getWallet(walletIds.get(i));
+            assertEquals(WALLET_NAME + (i + 1), wallet.getName());
+            assertTrue(wallet.getCurrencies().isEmpty());
+        }
+    }
+
+    @Test
+    @Transactional
+    void givenNameProvidedTwice_whenCreateWallets_thenOperationNotAllowedExceptionThrown() throws Exception {
+        final ResultActions result = call(POST, BULK_URL, getCreateRequest(WALLET_NAME + 1, WALLET_NAME + 2, WALLET_NAME + 1));
+        checkOperationNotAllowedException(result, "Wallet name [" + WALLET_NAME + 1 + "] is provided more than once.");
+    }
+
+    @Test
+    @Transactional
+    void givenNameInUse_whenCreateWallets_thenNothingCreated() throws Exception {
+        createWalletAndReturnId(WALLET_NAME + 2);
+
+        final ResultActions result = call(POST, BULK_URL, getCreateRequest(WALLET_NAME + 1, WALLET_NAME + 2));
+        checkOperationNotAllowedException(result, "Wallet name already exist: [" + WALLET_NAME + 2 + "].");
+
+        // the other name is still free
+        createWallets(WALLET_NAME + 1);
+    }
+
+    @Test
+    @Transactional
+    void givenNoName_whenCreateWallets_thenOperationNotAllowedExceptionThrown() throws Exception {
+        checkOperationNotAllowedException(call(POST, BULK_URL, getCreateRequest()), "Bulk does not contain any item.");
+    }
+
+    /* ---------------- ADD TO WALLETS -------------- */
+
+    @Test
+    @Transactional
+    void givenAdditions_whenAddToWallets_thenHoldingsOpenedAndIncremented() throws Exception {
+        final List<Long> walletIds = createWallets(WALLET_NAME + 1, WALLET_NAME + 2);
+
+        final ResultActions result = call(POST, BULK_ADD_URL, getAddRequest(
+            getAddition(walletIds.get(0), ADD_TO_CUR),
+            getAddition(walletIds.get(1), ADD_TO_CUR),
+            getAddition(walletIds.get(1), TRANSFER_TO_CUR),
+            getAddition(walletIds.get(0), ADD_TO_CUR)));
+
+        result
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.added", is(4)))
+            .andExpect(jsonPath("$.wallets", is(2)));
+
+        // both additions into the first wallet are converted by the same rate
+        final List<HoldingResponse> holdings1 = getWallet(walletIds.get(0)).getCurrencies();
+        final List<HoldingResponse> holdings2 = getWallet(walletIds.get(1)).getCurrencies();
+        assertEquals(1, holdings1.size());
+        assertEquals(2, holdings2.size());
+        final BigDecimal credit = holdings2.stream().filter(holding -> holding.getCode().equals(ADD_TO_CUR)).findFirst().orElseThrow().getAmount();
+        assertEquals(0, credit.add(credit).compareTo(holdings1.get(0).getAmount()));
+    }
+
+    @Test
+    @Transactional
+    void givenNotSupportedCurrency_whenAddToWallets_thenOperationNotAllowedExceptionThrown() throws Exception {
+        final List<Long> walletIds = createWallets(WALLET_NAME + 1);
+
+        final ResultActions result = call(POST, BULK_ADD_URL, getAddRequest(
+            getAddition(walletIds.get(0), ADD_TO_CUR),
+            getAddition(walletIds.get(0), NOT_SUPPORTED_CUR)));
+        checkOperationNotAllowedException(result, "Addition [1] was rejected: Currency [" + NOT_SUPPORTED_CUR + "] is not supported.");
+    }
+
+    @Test
+    @Transactional
+    void givenNotExistingWallet_whenAddToWallets_thenEntityNotFoundExceptionReturned() throws Exception {
+        final List<Long> walletIds = createWallets(WALLET_NAME + 1);
+
+        final ResultActions result = call(POST, BULK_ADD_URL, getAddRequest(
+            getAddition(walletIds.get(0), ADD_TO_CUR),
+            getAddition(Long.MAX_VALUE, ADD_TO_CUR)));
+        checkEntityNotFoundException(result);
+    }
+
+    private List<Long> createWallets(String... names) throws Exception {
+        final String content = call(POST, BULK_URL, getCreateRequest(names))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.created", is(names.length)))
+            .andExpect(jsonPath("$.walletIds", hasSize(names.length)))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        return objectMapper.readValue(content, BulkCreateWalletsResponse.class).getWalletIds();
+    }
+
+    private static BulkCreateWalletsRequest getCreateRequest(String... names) {
+        return BulkCreateWalletsRequest.builder().names(List.of(names)).build();
+    }
+
+    private static BulkAddRequest getAddRequest(BulkAddItem... additions) {
+        return BulkAddRequest.builder().additions(List.of(additions)).build();
+    }
+
+    private static BulkAddItem getAddition(Long walletId, String cryptoCurrencyTo) {
+        return BulkAddItem.builder()
+            .walletId(walletId)
+            .fiatCurrencyFrom(ADD_FROM_CUR)
+            .cryptoCurrencyTo(cryptoCurrencyTo)
+            .amount(DEFAULT_AMOUNT)
+            .build();
+    }
+
+}
@@ -0,0 +1,133 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.domain.request.TransferRequest;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+
+/**
+ * Fires parallel transfers of one currency between a few wallets. Without optimistic locking concurrent transfers overwrite each other's
+ * amounts, with it the conflicting transfers are retried and the total supply is conserved (test is not transactional on purpose).
+ */
+@Slf4j
+class ConcurrentTransferTest extends ControllerTest {
+
+    private static final int WALLETS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 2000;
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("0.001");
+
+    private final List<Long> walletIds = new ArrayList<>();
+
+    public ConcurrentTransferTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    // wallets are committed, so they would be listed by other tests
+    @AfterEach
+    void deleteWallets() throws Exception {
+        for (Long walletId : walletIds) {
+            call(DELETE, WALLET_URL + walletId).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void givenParallelTransfers_whenAllProcessed_thenTotalSupplyIsConserved() throws Exception {
+        for (int i = 0; i < WALLETS; i++) {
+            final Long walletId = createWalletAndReturnId("Concurrent" + i);
+            walletIds.add(walletId);
+            addIntoWallet(walletId);
+        }
+        final BigDecimal supply = getSupply();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final long start = System.nanoTime();
+
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            results.add(executor.submit(() -> {
+                final int from = ThreadLocalRandom.current().nextInt(WALLETS);
+                final int to = (from + 1 + ThreadLocalRandom.current().nextInt(WALLETS - 1)) % WALLETS;
+                final TransferRequest transferRequest = TransferRequest.builder()
+                    .cryptoCurrencyFrom(ADD_TO_CUR)
+                    .amount(TRANSFER_AMOUNT)
+                    .cryptoCurrencyTo(ADD_TO_CUR)
+                    .destinationWalletId(walletIds.get(to))
+                    .build();
+
+                return call(POST, WALLET_URL + walletIds.get(from) + TRANSFER, transferRequest)
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+            }));
+        }
+
+        int succeeded = 0;
+        for (Future<Integer> result : results) {
+            // every transfer either succeeds or is rejected as a whole after all retries (409)
+            final int status = result.get();
+            if (status == 200) {
+                succeeded++;
+            } else {
+                assertEquals(409, status);
+            }
+        }
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+
+        log.info("{} of {} parallel transfers succeeded in {} ms: {} transfers/s ({} threads, {} wallets)", succeeded, TRANSFERS, elapsed,
+            TRANSFERS * 1000L / Math.max(elapsed, 1), THREADS, WALLETS);
+
+        assertEquals(0, supply.compareTo(getSupply()), "Total supply is not conserved.");
+    }
+
+    @Test
+    void givenParallelAddsIntoNewWallet_whenAllProcessed_thenOneHoldingIsOpened() throws Exception {
+        final Long walletId = createWalletAndReturnId("Concurrent");
+        walletIds.add(walletId);
+
+        // all adds race to open the same holding, losers of the unique constraint are retried as increments
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> call(POST, WALLET_URL + walletId + ADD, getAddRequest())
+                .andReturn()
+                .getResponse()
+                .getStatus()));
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(200, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, getWallet(walletId).getCurrencies().size());
+    }
+
+    private BigDecimal getSupply() throws Exception {
+        BigDecimal supply = BigDecimal.ZERO;
+        for (Long walletId : walletIds) {
+            for (HoldingResponse holding : getWallet(walletId).getCurrencies()) {
+                supply = supply.add(holding.getAmount());
+            }
+        }
+        return supply;
+    }
+
+}
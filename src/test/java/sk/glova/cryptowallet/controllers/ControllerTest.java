@@ -14,17 +14,20 @@ import lombok.RequiredArgsConstructor;
 import org.hamcrest.Matcher;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
-import sk.glova.cryptowallet.domain.model.Wallet;
 import sk.glova.cryptowallet.domain.request.AddRequest;
 import sk.glova.cryptowallet.domain.request.TransferRequest;
 import sk.glova.cryptowallet.domain.request.UpsertWalletRequest;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
 
+@ActiveProfiles("test")
 @SpringBootTest
 @AutoConfigureMockMvc
 @RequiredArgsConstructor
@@ -135,13 +138,27 @@ public abstract class ControllerTest {
             .getResponse()
             .getContentAsString();
 
-        return objectMapper.readValue(content, Wallet.class).getId();
+        return objectMapper.readValue(content, WalletResponse.class).getId();
+    }
+
+    protected WalletResponse getWallet(Long walletId) throws Exception {
+        final String content = call(HttpMethod.GET, WALLET_URL + walletId)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        return objectMapper.readValue(content, WalletResponse.class);
     }
 
     protected ResultActions call(HttpMethod httpMethod, String url) throws Exception {
         return call(httpMethod, url, null);
     }
 
+    protected ResultActions callWithHeaders(HttpMethod httpMethod, String url, HttpHeaders headers) throws Exception {
+        return mockMvc.perform(request(httpMethod, url).headers(headers));
+    }
+
     protected ResultActions call(HttpMethod httpMethod, String url, Object request) throws Exception {
         final MockHttpServletRequestBuilder builder = request(httpMethod, url, request);
 
@@ -0,0 +1,71 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import sk.glova.cryptowallet.domain.request.AddCurrencyRequest;
+
+class CurrencyAdminControllerTest extends ControllerTest {
+
+    private static final String CURRENCY_URL = "/rest/v1/admin/currency/";
+    private static final String NEW_CUR = "XRP";
+
+    public CurrencyAdminControllerTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    @Test
+    void whenGetCatalog_thenCryptoAndFiatCodesReturned() throws Exception {
+        call(GET, CURRENCY_URL)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cryptoCodes", hasItem(ADD_TO_CUR)))
+            .andExpect(jsonPath("$.fiatCodes", hasItem(ADD_FROM_CUR)))
+            .andExpect(jsonPath("$.fiatCodes", not(hasItem(ADD_TO_CUR))));
+    }
+
+    @Test
+    void givenNewCurrency_whenAddAndRemove_thenCatalogReloaded() throws Exception {
+        final AddCurrencyRequest request = AddCurrencyRequest.builder().code(NEW_CUR.toLowerCase()).cryptoCurrency(true).build();
+
+        call(POST, CURRENCY_URL, request)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cryptoCodes", hasItem(NEW_CUR)));
+
+        // already supported regardless of the case
+        final ResultActions duplicate = call(POST, CURRENCY_URL, request);
+        checkOperationNotAllowedException(duplicate, "Currency [" + NEW_CUR + "] is already supported.");
+
+        call(DELETE, CURRENCY_URL + NEW_CUR)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cryptoCodes", not(hasItem(NEW_CUR))));
+
+        call(DELETE, CURRENCY_URL + NEW_CUR)
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.message", is("Currency [" + NEW_CUR + "] is not supported.")));
+
+        // removed currency is rejected by wallet operations
+        final Long walletId = createWalletAndReturnId(WALLET_NAME + NEW_CUR);
+        final ResultActions add = call(POST, WALLET_URL + walletId + ADD, getAddRequest(NEW_CUR));
+        checkOperationNotAllowedException(add, "Currency [" + NEW_CUR + "] is not supported.");
+    }
+
+    @Test
+    void givenInvalidCode_whenAdd_thenOperationNotAllowedExceptionReturned() throws Exception {
+        final AddCurrencyRequest request = AddCurrencyRequest.builder().code("B-C").cryptoCurrency(true).build();
+
+        final ResultActions result = call(POST, CURRENCY_URL, request);
+        checkOperationNotAllowedException(result, "Provided code must consist of 2 to 10 letters or digits.");
+    }
+
+}
@@ -0,0 +1,238 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.domain.request.AddRequest;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
+
+/**
+ * Runs the application against a local stub of the external API which can be switched to failing mode. The outage test leaves the circuit
+ * open and the snapshot stale, so it runs last.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ExternalApiOutageTest extends ControllerTest {
+
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long STALE_AFTER = 1000;
+    private static final long MAX_STALE = 5000;
+
+    private static final HttpServer stub = startStub();
+    private static volatile boolean failing;
+    private static volatile boolean errorBody;
+
+    private final RateSnapshotService rateSnapshotService;
+    private final CircuitBreaker circuitBreaker;
+
+    public ExternalApiOutageTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc,
+        @Autowired RateSnapshotService rateSnapshotService, @Autowired CircuitBreaker circuitBreaker) {
+        super(objectMapper, mockMvc);
+        this.rateSnapshotService = rateSnapshotService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @DynamicPropertySource
+    static void externalApi(DynamicPropertyRegistry registry) throws IOException {
+        final String stubUrl = "http://127.0.0.1:" + stub.getAddress().getPort();
+        registry.add("rates.provider", () -> "http");
+        registry.add("external.api.multi-url", () -> stubUrl + "/data/pricemulti?fsyms={fsyms}&tsyms={tsyms}");
+        registry.add("external.api.single-url", () -> stubUrl + "/data/price?fsym={fsym}&tsyms={tsyms}");
+        registry.add("external.api.circuit-breaker.failure-threshold", () -> FAILURE_THRESHOLD);
+        registry.add("external.api.circuit-breaker.open-duration", () -> 60000);
+        registry.add("rates.refresh-interval", () -> 3600000);
+        registry.add("rates.stale-after", () -> STALE_AFTER);
+        registry.add("rates.max-stale", () -> MAX_STALE);
+        registry.add("rates.history.directory", Files.createTempDirectory("history")::toString);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @AfterEach
+    void restoreStub() {
+        failing = false;
+        errorBody = false;
+    }
+
+    @Test
+    @Order(1)
+    void givenExternalApiErrorBody_whenRefresh_thenFailsAndPreviousSnapshotServed() throws Exception {
+        rateSnapshotService.refresh();
+        final RateSnapshot previous = rateSnapshotService.getSnapshot();
+
+        // error responses come with status 200, e.g. when the rate limit is hit (refresh is skipped while the warm-up refresh is still running)
+        errorBody = true;
+        final long deadline = System.currentTimeMillis() + 5000;
+        boolean failed = false;
+        while (!failed && System.currentTimeMillis() < deadline) {
+            try {
+                rateSnapshotService.refresh();
+                Thread.sleep(10);
+            } catch (RuntimeException ex) {
+                failed = true;
+            }
+        }
+        assertTrue(failed);
+
+        // the warm-up refresh may have installed a newer good snapshot, but never an empty one
+        final RateSnapshot current = rateSnapshotService.getSnapshot();
+        assertEquals(previous.getMatrix().getCryptoCount(), current.getMatrix().getCryptoCount());
+        assertTrue(current.getMatrix().hasRow(0));
+
+        call(GET, RATE_URL)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].currencyRates.USD").value(2));
+
+        // a single failure does not open the circuit, the next good response replaces the snapshot
+        errorBody = false;
+        while (rateSnapshotService.getSnapshot().getVersion() <= current.getVersion() && System.currentTimeMillis() < deadline + 5000) {
+            rateSnapshotService.refresh();
+            Thread.sleep(10);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(rateSnapshotService.getSnapshot().getVersion() > current.getVersion());
+    }
+
+    @Test
+    @Order(2)
+    void givenExternalApiDown_whenGetRatesOrAdd_thenLastKnownRatesServedWithinStalenessBound() throws Exception {
+        rateSnapshotService.refresh();
+
+        call(GET, RATE_URL)
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+
+        // consecutive failed refreshes open the circuit (refresh is skipped while the warm-up refresh is still running)
+        failing = true;
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (circuitBreaker.getState() != CircuitBreaker.State.OPEN && System.currentTimeMillis() < deadline) {
+            try {
+                rateSnapshotService.refresh();
+            } catch (RuntimeException ignored) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Thread.sleep(STALE_AFTER + 100);
+
+        call(GET, RATE_URL)
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.WARNING))
+            .andExpect(header().exists(StaleRatesResponseAdvice.RATE_AGE_HEADER));
+
+        // snapshot is older than tolerated, single pair call is rejected by the open circuit and the last known rate is used
+        final Long walletId = createWalletAndReturnId(WALLET_NAME);
+        final AddRequest addRequest = AddRequest.builder()
+            .fiatCurrencyFrom(ADD_FROM_CUR)
+            .amount(DEFAULT_AMOUNT)
+            .cryptoCurrencyTo(ADD_TO_CUR)
+            .maxRateAge(0L)
+            .build();
+
+        call(POST, WALLET_URL + walletId + ADD, addRequest)
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.WARNING));
+
+        Thread.sleep(MAX_STALE);
+
+        call(GET, RATE_URL)
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.exception").value("RateUnavailableException"));
+    }
+
+    private static HttpServer startStub() {
+        try {
+            final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/data/", ExternalApiOutageTest::handle);
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // every pair costs 2, in both pricemulti ({"BTC":{"USD":2}}) and price ({"USD":2}) format
+    private static void handle(HttpExchange exchange) throws IOException {
+        if (failing) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        if (errorBody) {
+            send(exchange, "{\"Response\":\"Error\",\"Message\":\"You are over your rate limit please upgrade your account!\"}"
+                .getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        final String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+        final String fiats = Arrays.stream(getParameter(query, "tsyms").split(","))
+            .map(fiat -> "\"" + fiat + "\":2")
+            .collect(Collectors.joining(",", "{", "}"));
+
+        final byte[] body;
+        if (exchange.getRequestURI().getPath().endsWith("pricemulti")) {
+            body = Arrays.stream(getParameter(query, "fsyms").split(","))
+                .map(crypto -> "\"" + crypto + "\":" + fiats)
+                .collect(Collectors.joining(",", "{", "}"))
+                .getBytes(StandardCharsets.UTF_8);
+        } else {
+            body = fiats.getBytes(StandardCharsets.UTF_8);
+        }
+
+        send(exchange, body);
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String getParameter(String query, String name) {
+        return Arrays.stream(query.split("&"))
+            .filter(parameter -> parameter.startsWith(name + "="))
+            .map(parameter -> parameter.substring(name.length() + 1))
+            .findFirst()
+            .orElse("");
+    }
+
+}
@@ -0,0 +1,211 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.domain.request.BatchTransferItem;
+import sk.glova.cryptowallet.domain.request.BatchTransferRequest;
+import sk.glova.cryptowallet.domain.request.BulkAddItem;
+import sk.glova.cryptowallet.domain.request.BulkAddRequest;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+import sk.glova.cryptowallet.domain.response.LedgerReplayReport;
+import sk.glova.cryptowallet.services.api.LedgerService;
+
+/**
+ * Ledger is replayed over all committed wallets, so the test is not transactional on purpose.
+ */
+class LedgerControllerTest extends ControllerTest {
+
+    private static final String LEDGER_URL = "/ledger";
+    private static final String LEDGER_ENDPOINT_URL = "/actuator/ledger";
+
+    private final ObjectMapper objectMapper;
+    private final LedgerService ledgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Long> walletIds = new ArrayList<>();
+
+    public LedgerControllerTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc, @Autowired LedgerService ledgerService,
+        @Autowired JdbcTemplate jdbcTemplate) {
+        super(objectMapper, mockMvc);
+        this.objectMapper = objectMapper;
+        this.ledgerService = ledgerService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // wallets are committed, so they would be listed by other tests
+    @AfterEach
+    void deleteWallets() throws Exception {
+        for (Long walletId : walletIds) {
+            call(DELETE, WALLET_URL + walletId).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void givenAddAndTransfer_whenGetLedger_thenEntriesOfBothWalletsReturned() throws Exception {
+        final Long walletId1 = createWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        addIntoWallet(walletId1);
+        call(POST, WALLET_URL + walletId1 + TRANSFER, getTransferRequest(walletId2)).andExpect(status().isOk());
+
+        // the newest entry comes first
+        call(GET, WALLET_URL + walletId1 + LEDGER_URL)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].type", is("TRANSFER_OUT")))
+            .andExpect(jsonPath("$.content[0].code", is(TRANSFER_FROM_CUR)))
+            .andExpect(jsonPath("$.content[0].amount", is(-1.0)))
+            .andExpect(jsonPath("$.content[0].position", is(2)))
+            .andExpect(jsonPath("$.content[0].counterpartyWalletId", is(walletId2.intValue())))
+            .andExpect(jsonPath("$.content[1].type", is("ADD")))
+            .andExpect(jsonPath("$.content[1].position", is(1)));
+
+        call(GET, WALLET_URL + walletId2 + LEDGER_URL)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].type", is("TRANSFER_IN")))
+            .andExpect(jsonPath("$.content[0].code", is(TRANSFER_TO_CUR)))
+            .andExpect(jsonPath("$.content[0].position", is(1)))
+            .andExpect(jsonPath("$.content[0].counterpartyWalletId", is(walletId1.intValue())));
+    }
+
+    @Test
+    void givenNotExistingWallet_whenGetLedger_thenEntityNotFoundExceptionReturned() throws Exception {
+        checkEntityNotFoundException(call(GET, WALLET_URL + Long.MAX_VALUE + LEDGER_URL));
+    }
+
+    @Test
+    void givenTamperedAmount_whenReplay_thenMismatchReportedAndCorrected() throws Exception {
+        final Long walletId = createWallet(WALLET_NAME + 1);
+        addIntoWallet(walletId);
+        addIntoWallet(walletId);
+        final BigDecimal amount = getAmount(walletId);
+        assertEquals(0, verify(false).getMismatches());
+
+        // amount changed behind the back of the ledger
+        jdbcTemplate.update("update currency set amount = amount + 1 where wallet_id = ?", walletId);
+
+        final LedgerReplayReport verified = verify(false);
+        assertEquals(1, verified.getMismatches());
+        assertEquals(0, verified.getCorrected());
+        assertEquals(walletId, verified.getFirstMismatches().get(0).getWalletId());
+        assertEquals(0, amount.compareTo(verified.getFirstMismatches().get(0).getReplayedAmount()));
+
+        final LedgerReplayReport replayed = readReport(call(POST, LEDGER_ENDPOINT_URL, Map.of()).andExpect(status().isOk()).andReturn().getResponse()
+            .getContentAsString());
+        assertEquals(1, replayed.getCorrected());
+        assertEquals(0, amount.compareTo(getAmount(walletId)));
+        assertEquals(0, verify(false).getMismatches());
+    }
+
+    @Test
+    void givenSnapshotsAndLaterChanges_whenReplayFromSnapshots_thenNoMismatch() throws Exception {
+        final Long walletId1 = createWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        addIntoWallet(walletId1);
+        call(POST, WALLET_URL + walletId1 + TRANSFER, getTransferRequest(walletId2)).andExpect(status().isOk());
+        assertTrue(ledgerService.takeSnapshots() >= 2);
+
+        // tails after the snapshots
+        addIntoWallet(walletId1);
+        call(POST, WALLET_URL + walletId1 + TRANSFER, getTransferRequest(walletId2)).andExpect(status().isOk());
+
+        final LedgerReplayReport report = verify(true);
+        assertTrue(report.isFromSnapshots());
+        assertEquals(0, report.getMismatches());
+        // snapshot plus the tail folds to the same amounts as the whole ledger
+        assertEquals(0, verify(false).getMismatches());
+    }
+
+    @Test
+    void givenAddsTransfersAndBatches_whenSumLedger_thenEveryAmountEqualsItsLedgerSum() throws Exception {
+        final Long walletId1 = createWallet(WALLET_NAME + 1);
+        final Long walletId2 = createWallet(WALLET_NAME + 2);
+        final Long walletId3 = createWallet(WALLET_NAME + 3);
+
+        addIntoWallet(walletId1);
+        call(POST, WALLET_URL + walletId1 + TRANSFER, getTransferRequest(walletId2)).andExpect(status().isOk());
+        call(POST, WALLET_URL + "bulk/add", BulkAddRequest.builder()
+            .additions(List.of(getAddition(walletId2), getAddition(walletId3), getAddition(walletId3)))
+            .build()).andExpect(status().isOk());
+        call(POST, WALLET_URL + "transfers", BatchTransferRequest.builder()
+            .mode(BatchTransferRequest.Mode.PER_ITEM)
+            .transfers(List.of(getBatchItem(walletId3, walletId1, BigDecimal.ONE), getBatchItem(walletId1, walletId2, BigDecimal.TEN.pow(9))))
+            .build()).andExpect(status().isOk());
+        // the rejected atomic batch must not leave entries of its applied transfer behind
+        call(POST, WALLET_URL + "transfers", BatchTransferRequest.builder()
+            .mode(BatchTransferRequest.Mode.ATOMIC)
+            .transfers(List.of(getBatchItem(walletId1, walletId3, BigDecimal.ONE), getBatchItem(walletId2, walletId3, BigDecimal.TEN.pow(9))))
+            .build()).andExpect(status().isUnprocessableEntity());
+
+        for (Long walletId : walletIds) {
+            final List<Map<String, Object>> holdings = jdbcTemplate.queryForList("select c.code, c.amount, "
+                + "(select coalesce(sum(l.amount), 0) from ledger_entry l where l.holding_id = c.id) as ledger_sum "
+                + "from currency c where c.wallet_id = ?", walletId);
+            assertFalse(holdings.isEmpty());
+            for (Map<String, Object> holding : holdings) {
+                assertEquals(0, ((BigDecimal) holding.get("amount")).compareTo((BigDecimal) holding.get("ledger_sum")),
+                    "wallet " + walletId + ": " + holding);
+            }
+        }
+        assertEquals(0, verify(false).getMismatches());
+    }
+
+    private LedgerReplayReport verify(boolean fromSnapshots) throws Exception {
+        return readReport(call(GET, LEDGER_ENDPOINT_URL + "?fromSnapshots=" + fromSnapshots).andExpect(status().isOk()).andReturn()
+            .getResponse().getContentAsString());
+    }
+
+    private LedgerReplayReport readReport(String content) throws Exception {
+        return objectMapper.readValue(content, LedgerReplayReport.class);
+    }
+
+    private Long createWallet(String name) throws Exception {
+        final Long walletId = createWalletAndReturnId(name);
+        walletIds.add(walletId);
+        return walletId;
+    }
+
+    private static BulkAddItem getAddition(Long walletId) {
+        return BulkAddItem.builder()
+            .walletId(walletId)
+            .fiatCurrencyFrom(ADD_FROM_CUR)
+            .cryptoCurrencyTo(ADD_TO_CUR)
+            .amount(DEFAULT_AMOUNT)
+            .build();
+    }
+
+    private static BatchTransferItem getBatchItem(Long sourceWalletId, Long destinationWalletId, BigDecimal amount) {
+        return BatchTransferItem.builder()
+            .sourceWalletId(sourceWalletId)
+            .cryptoCurrencyFrom(ADD_TO_CUR)
+            .cryptoCurrencyTo(TRANSFER_TO_CUR)
+            .amount(amount)
+            .destinationWalletId(destinationWalletId)
+            .build();
+    }
+
+    private BigDecimal getAmount(Long walletId) throws Exception {
+        final List<HoldingResponse> holdings = getWallet(walletId).getCurrencies();
+        assertEquals(1, holdings.size());
+        return holdings.get(0).getAmount();
+    }
+
+}
@@ -1,17 +1,29 @@
 package sk.glova.cryptowallet.controllers;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -56,4 +68,113 @@ public class RateControllerTest extends ControllerTest {
             .andExpect(jsonPath("$.content[0].name", is("XMR")));
     }
 
+    @Test
+    @Transactional
+    void whenGetRatesSortedDescForFiat_thenPagedRatesReturned() throws Exception {
+        call(GET, RATE_URL + "?page=0&size=1&sort=USD,desc")
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$['pageable']['paged']").value(true))
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].name", is("BTC")));
+    }
+
+    @Test
+    @Transactional
+    void whenGetRatesFilteredBySymbolsAndFiats_thenOnlyRequestedRatesReturned() throws Exception {
+        call(GET, RATE_URL + "?symbols=btc,eth," + NOT_SUPPORTED_CUR + "&fiats=EUR&sort=name,desc")
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.totalElements", is(2)))
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].name", is("ETH")))
+            .andExpect(jsonPath("$.content[1].name", is("BTC")))
+            .andExpect(jsonPath("$.content[0].currencyRates.EUR", notNullValue()))
+            .andExpect(jsonPath("$.content[0].currencyRates.USD").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void whenGetRatesSortedForNotSupportedProperty_thenOperationNotAllowedExceptionReturned() throws Exception {
+        checkOperationNotAllowedException(call(GET, RATE_URL + "?sort=" + NOT_SUPPORTED_CUR), "Sort property [" + NOT_SUPPORTED_CUR + "] is not supported.");
+    }
+
+    @Test
+    @Transactional
+    void givenCurrentETag_whenGetRates_thenNotModifiedReturned() throws Exception {
+        final String eTag = call(GET, RATE_URL)
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+
+        callWithHeaders(GET, RATE_URL, headers)
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @Transactional
+    void givenETagOfPreviousProcess_whenGetRates_thenRatesReturned() throws Exception {
+        final String eTag = call(GET, RATE_URL)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        final String version = eTag.substring(eTag.indexOf('.') + 1, eTag.length() - 1);
+
+        // snapshot versions restart with every process, the same version of another process is not the current one
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(List.of("\"" + version + "\"", "\"0." + version + "\""));
+
+        callWithHeaders(GET, RATE_URL, headers)
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void givenAcceptGzip_whenGetRates_thenGzippedRatesReturned() throws Exception {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        final byte[] body = callWithHeaders(GET, RATE_URL + "?size=1&sort=USD,desc", headers)
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, endsWith("-gzip\"")))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8), containsString("\"name\":\"BTC\""));
+        }
+    }
+
+    @Test
+    @Transactional
+    void whenGetHistory_thenCandlesReturned() throws Exception {
+        // make sure at least one snapshot was fetched and appended to the history
+        call(GET, RATE_URL).andExpect(status().isOk());
+
+        call(GET, RATE_URL + "history/btc/usd?resolution=PT1M")
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$", not(empty())))
+            .andExpect(jsonPath("$[0].open", notNullValue()))
+            .andExpect(jsonPath("$[0].high", notNullValue()))
+            .andExpect(jsonPath("$[0].low", notNullValue()))
+            .andExpect(jsonPath("$[0].close", notNullValue()));
+    }
+
+    @Test
+    @Transactional
+    void whenGetHistoryForNotSupportedCurrency_thenOperationNotAllowedExceptionReturned() throws Exception {
+        checkOperationNotAllowedException(call(GET, RATE_URL + "history/btc/" + NOT_SUPPORTED_CUR), "Currency [" + NOT_SUPPORTED_CUR + "] is not supported.");
+    }
+
 }
@@ -0,0 +1,65 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RateStreamControllerTest extends ControllerTest {
+
+    private static final String RATE_STREAM_URL = "/rest/v1/rate/stream";
+
+    public RateStreamControllerTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc) {
+        super(objectMapper, mockMvc);
+    }
+
+    @Test
+    void givenFilters_whenStreamRates_thenFilteredSnapshotEventReturned() throws Exception {
+        final String body = getFirstEvent("?symbols=btc&fiats=USD");
+
+        assertTrue(body.contains("event:snapshot"));
+        assertThat(body, containsString("\"BTC\":{\"USD\""));
+        assertThat(body, not(containsString("ETH")));
+        assertThat(body, not(containsString("EUR")));
+    }
+
+    @Test
+    void givenFiltersWithSpaces_whenStreamRates_thenCodesTrimmedLikeRatePageFilter() throws Exception {
+        final String body = getFirstEvent("?symbols= btc ,eth &fiats= usd");
+
+        assertThat(body, containsString("\"BTC\":{\"USD\""));
+        assertThat(body, containsString("\"ETH\":{\"USD\""));
+        assertThat(body, not(containsString("EUR")));
+    }
+
+    private String getFirstEvent(String query) throws Exception {
+        final MockHttpServletResponse response = call(GET, RATE_STREAM_URL + query)
+            .andExpect(request().asyncStarted())
+            .andReturn()
+            .getResponse();
+
+        // the first event is sent asynchronously by the dispatcher, it is complete when terminated by an empty line
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().endsWith("\n\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // content type is set by the first event as well
+        assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        return response.getContentAsString();
+    }
+
+}
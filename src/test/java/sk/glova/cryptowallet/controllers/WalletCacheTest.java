@@ -0,0 +1,61 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import sk.glova.cryptowallet.domain.response.HoldingResponse;
+import sk.glova.cryptowallet.domain.response.WalletResponse;
+
+/**
+ * Wallets are read from the second-level cache, every request runs in its own transaction (test is not transactional on purpose).
+ */
+class WalletCacheTest extends ControllerTest {
+
+    private final Statistics statistics;
+
+    public WalletCacheTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc, @Autowired EntityManagerFactory entityManagerFactory) {
+        super(objectMapper, mockMvc);
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void givenCachedWallet_whenAddAndTransfer_thenChangesAreVisible() throws Exception {
+        final Long walletId1 = createWalletAndReturnId("Cached" + 1);
+        final Long walletId2 = createWalletAndReturnId("Cached" + 2);
+        addIntoWallet(walletId1);
+
+        // the second read is served from the cache
+        final BigDecimal added = getAmount(getWallet(walletId1));
+        final long hits = statistics.getSecondLevelCacheHitCount();
+        assertEquals(added, getAmount(getWallet(walletId1)));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+
+        // cached wallet and its currencies are updated by add
+        addIntoWallet(walletId1);
+        final BigDecimal doubled = getAmount(getWallet(walletId1));
+        assertTrue(doubled.compareTo(added) > 0);
+
+        // and by transfer on both sides
+        call(POST, WALLET_URL + walletId1 + TRANSFER, getTransferRequest(walletId2))
+            .andExpect(status().isOk());
+        assertEquals(doubled.subtract(BigDecimal.ONE), getAmount(getWallet(walletId1)));
+        assertEquals(TRANSFER_TO_CUR, getWallet(walletId2).getCurrencies().get(0).getCode());
+    }
+
+    private static BigDecimal getAmount(WalletResponse wallet) {
+        assertEquals(1, wallet.getCurrencies().size());
+        final HoldingResponse currency = wallet.getCurrencies().get(0);
+        return currency.getAmount();
+    }
+
+}
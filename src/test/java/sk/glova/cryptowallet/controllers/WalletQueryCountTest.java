@@ -0,0 +1,65 @@
+package sk.glova.cryptowallet.controllers;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Listing of wallets runs a bounded number of queries regardless of the page size (test is not transactional on purpose).
+ */
+class WalletQueryCountTest extends ControllerTest {
+
+    private static final int PAGE_SIZE = 5;
+    // page of wallets, their count and holdings of the whole page
+    private static final long MAX_QUERIES = 3;
+
+    private final Statistics statistics;
+    private final List<Long> walletIds = new ArrayList<>();
+
+    public WalletQueryCountTest(@Autowired ObjectMapper objectMapper, @Autowired MockMvc mockMvc, @Autowired EntityManagerFactory entityManagerFactory) {
+        super(objectMapper, mockMvc);
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // wallets are committed, so they would be listed by other tests
+    @AfterEach
+    void deleteWallets() throws Exception {
+        for (Long walletId : walletIds) {
+            call(DELETE, WALLET_URL + walletId).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void givenWalletsWithHoldings_whenGetWallets_thenQueryCountDoesNotGrowWithPageSize() throws Exception {
+        for (int i = 0; i < PAGE_SIZE + 1; i++) {
+            final Long walletId = createWalletAndReturnId("Listed" + i);
+            walletIds.add(walletId);
+            addIntoWallet(walletId);
+        }
+
+        statistics.clear();
+        call(GET, WALLET_URL + "?size=" + PAGE_SIZE)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(PAGE_SIZE)))
+            .andExpect(jsonPath("$.content[0].currencies[0].code", is(ADD_TO_CUR)));
+
+        final long queries = statistics.getPrepareStatementCount();
+        assertTrue(queries <= MAX_QUERIES, "Listing of wallets ran " + queries + " queries.");
+    }
+
+}
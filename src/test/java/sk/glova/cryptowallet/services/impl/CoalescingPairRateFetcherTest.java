@@ -0,0 +1,125 @@
+package sk.glova.cryptowallet.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import sk.glova.cryptowallet.config.CacheFactory;
+
+/**
+ * Parallel lookups of one pair against a mocked batcher, whose upstream answer is held back until all lookups are waiting for it.
+ */
+class CoalescingPairRateFetcherTest {
+
+    private static final int LOOKUPS = 16;
+    private static final BigDecimal RATE = new BigDecimal("18.5");
+
+    private final PairRateBatcher pairRateBatcher = mock(PairRateBatcher.class);
+    private final CompletableFuture<BigDecimal> upstream = new CompletableFuture<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(LOOKUPS);
+
+    private CoalescingPairRateFetcher fetcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final CacheFactory cacheFactory = mock(CacheFactory.class);
+        when(cacheFactory.create(eq(CoalescingPairRateFetcher.PAIR_RATES), any(CacheLoader.class)))
+            .thenAnswer(invocation -> Caffeine.newBuilder().expireAfterWrite(1, TimeUnit.MINUTES).build(invocation.getArgument(1)));
+        when(pairRateBatcher.submit("BTC", "ETH")).thenReturn(upstream);
+
+        fetcher = new CoalescingPairRateFetcher(pairRateBatcher, new SimpleMeterRegistry(), cacheFactory, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenParallelLookupsOfOnePair_whenGetRate_thenOneUpstreamCall() throws Exception {
+        final List<Future<BigDecimal>> lookups = lookUpInParallel();
+
+        upstream.complete(RATE);
+
+        for (Future<BigDecimal> lookup : lookups) {
+            assertEquals(RATE, lookup.get(5, TimeUnit.SECONDS));
+        }
+        verify(pairRateBatcher, times(1)).submit("BTC", "ETH");
+        assertEquals(LOOKUPS - 1, fetcher.getSavedCalls());
+    }
+
+    @Test
+    void givenFetchedPair_whenGetRate_thenCachedRateReturned() throws Exception {
+        final List<Future<BigDecimal>> lookups = lookUpInParallel();
+        upstream.complete(RATE);
+        for (Future<BigDecimal> lookup : lookups) {
+            lookup.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(RATE, fetcher.getRate("BTC", "ETH"));
+
+        verify(pairRateBatcher, times(1)).submit("BTC", "ETH");
+        assertEquals(LOOKUPS, fetcher.getSavedCalls());
+    }
+
+    @Test
+    void givenUpstreamFails_whenGetRate_thenEveryLookupFailsAndFailureIsNotCached() throws Exception {
+        final List<Future<BigDecimal>> lookups = lookUpInParallel();
+        final ResourceAccessException failure = new ResourceAccessException("External API is down.");
+
+        upstream.completeExceptionally(failure);
+
+        for (Future<BigDecimal> lookup : lookups) {
+            final ExecutionException ex = assertThrows(ExecutionException.class, () -> lookup.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ex.getCause());
+        }
+        verify(pairRateBatcher, times(1)).submit("BTC", "ETH");
+
+        // the next lookup asks the external api again
+        when(pairRateBatcher.submit("BTC", "ETH")).thenReturn(CompletableFuture.completedFuture(RATE));
+        assertEquals(RATE, fetcher.getRate("BTC", "ETH"));
+        verify(pairRateBatcher, times(2)).submit("BTC", "ETH");
+    }
+
+    /**
+     * Starts the lookups and returns once all of them are waiting, one for the held back upstream answer and the others for the first one.
+     */
+    private List<Future<BigDecimal>> lookUpInParallel() throws InterruptedException {
+        final List<Future<BigDecimal>> lookups = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups.add(executor.submit(() -> fetcher.getRate("BTC", "ETH")));
+        }
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (fetcher.getSavedCalls() < LOOKUPS - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(fetcher.getSavedCalls() >= LOOKUPS - 1, "lookups did not join the first one");
+        return lookups;
+    }
+
+}
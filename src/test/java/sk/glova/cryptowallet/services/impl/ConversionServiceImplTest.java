@@ -0,0 +1,179 @@
+package sk.glova.cryptowallet.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import sk.glova.cryptowallet.domain.model.CurrencyPair;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.domain.model.RateSnapshot;
+import sk.glova.cryptowallet.exception.RateUnavailableException;
+import sk.glova.cryptowallet.services.api.RateSnapshotService;
+import sk.glova.cryptowallet.utils.StaleRates;
+
+/**
+ * Conversion math over a fixed snapshot, the external API is replaced by a mock of the pair rate fetcher.
+ */
+class ConversionServiceImplTest {
+
+    private static final int PRECISION = 12;
+    private static final MathContext MATH_CONTEXT = new MathContext(PRECISION);
+    private static final long MAX_AGE = 60000;
+
+    // BTC/ETH is 50000/3000 in USD, but 45000/2500 = 18 in EUR, so the fiat the cross rate goes through is visible in the result
+    private static final RateMatrix MATRIX = matrix();
+
+    private final RateSnapshotService rateSnapshotService = mock(RateSnapshotService.class);
+    private final CoalescingPairRateFetcher pairRateFetcher = mock(CoalescingPairRateFetcher.class);
+    private final ConversionServiceImpl conversionService = new ConversionServiceImpl(rateSnapshotService, pairRateFetcher);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(conversionService, "defaultMaxRateAge", MAX_AGE);
+        ReflectionTestUtils.setField(conversionService, "crossFiat", "EUR");
+        conversionService.setPrecision(PRECISION);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenCryptoToFiat_whenGetConversionRate_thenMatrixRateReturned() {
+        givenSnapshot(Instant.now());
+
+        assertEquals(0, new BigDecimal("50000").compareTo(conversionService.getConversionRate("BTC", "USD", null)));
+        verify(pairRateFetcher, never()).getRate(anyString(), anyString());
+    }
+
+    @Test
+    void givenFiatToCrypto_whenGetConversionRate_thenInvertedRateReturned() {
+        givenSnapshot(Instant.now());
+
+        final BigDecimal rate = conversionService.getConversionRate("EUR", "BTC", null);
+
+        // 1 / 45000 keeps all significant digits, the fixed-point matrix would keep 0.00002222 only
+        assertEquals(BigDecimal.ONE.divide(new BigDecimal("45000"), MATH_CONTEXT), rate);
+        assertEquals(PRECISION, rate.precision());
+    }
+
+    @Test
+    void givenCryptoToCrypto_whenGetConversionRate_thenCrossRateThroughCrossFiatReturned() {
+        givenSnapshot(Instant.now());
+
+        assertEquals(0, new BigDecimal("18").compareTo(conversionService.getConversionRate("BTC", "ETH", null)));
+    }
+
+    @Test
+    void givenCryptoToCryptoWithoutCrossFiatLeg_whenGetConversionRate_thenCrossRateThroughOtherFiatReturned() {
+        givenSnapshot(Instant.now());
+
+        // LTC has no EUR rate, 150 / 3000 in USD
+        assertEquals(0, new BigDecimal("0.05").compareTo(conversionService.getConversionRate("LTC", "ETH", null)));
+    }
+
+    @Test
+    void givenSameCurrency_whenGetConversionRate_thenOneReturnedWithoutSnapshot() {
+        assertSame(BigDecimal.ONE, conversionService.getConversionRate("BTC", "BTC", null));
+        verify(rateSnapshotService, never()).getSnapshot();
+    }
+
+    @Test
+    void givenSnapshotOlderThanMaxRateAge_whenGetConversionRate_thenPairRateFetched() {
+        givenSnapshot(Instant.now().minusMillis(1000));
+        when(pairRateFetcher.getRate("BTC", "USD")).thenReturn(new BigDecimal("51000"));
+
+        assertEquals(new BigDecimal("51000"), conversionService.getConversionRate("BTC", "USD", 500L));
+        assertNull(StaleRates.getFetchedAt());
+    }
+
+    @Test
+    void givenPairNotInSnapshot_whenGetConversionRate_thenPairRateFetched() {
+        givenSnapshot(Instant.now());
+        when(pairRateFetcher.getRate("BTC", "GBP")).thenReturn(new BigDecimal("40000"));
+
+        assertEquals(new BigDecimal("40000"), conversionService.getConversionRate("BTC", "GBP", null));
+    }
+
+    @Test
+    void givenSnapshotNotAvailable_whenGetConversionRate_thenPairRateFetched() {
+        when(rateSnapshotService.getSnapshot()).thenThrow(new RateUnavailableException("Rates are not available."));
+        when(pairRateFetcher.getRate("EUR", "BTC")).thenReturn(new BigDecimal("0.00002"));
+
+        assertEquals(new BigDecimal("0.00002"), conversionService.getConversionRate("EUR", "BTC", null));
+    }
+
+    @Test
+    void givenStaleSnapshotAndExternalApiDown_whenGetConversionRate_thenLastKnownRateReturnedAndMarkedStale() {
+        final Instant fetchedAt = Instant.now().minusMillis(MAX_AGE * 2);
+        givenSnapshot(fetchedAt);
+        when(pairRateFetcher.getRate("BTC", "ETH")).thenThrow(new ResourceAccessException("External API is down."));
+
+        assertEquals(0, new BigDecimal("18").compareTo(conversionService.getConversionRate("BTC", "ETH", null)));
+        assertEquals(fetchedAt, StaleRates.getFetchedAt());
+    }
+
+    @Test
+    void givenPairNotInSnapshotAndExternalApiDown_whenGetConversionRate_thenFailureThrown() {
+        givenSnapshot(Instant.now());
+        final ResourceAccessException failure = new ResourceAccessException("External API is down.");
+        when(pairRateFetcher.getRate("BTC", "GBP")).thenThrow(failure);
+
+        assertSame(failure, assertThrows(ResourceAccessException.class, () -> conversionService.getConversionRate("BTC", "GBP", null)));
+        assertNull(StaleRates.getFetchedAt());
+    }
+
+    @Test
+    void givenPairs_whenGetConversionRates_thenEveryPairResolvedFromOneSnapshot() {
+        givenSnapshot(Instant.now());
+        final CurrencyPair fiatToCrypto = new CurrencyPair("EUR", "BTC");
+        final CurrencyPair cryptoToCrypto = new CurrencyPair("BTC", "ETH");
+
+        final Map<CurrencyPair, BigDecimal> rates = conversionService.getConversionRates(List.of(fiatToCrypto, cryptoToCrypto, fiatToCrypto), null);
+
+        assertEquals(2, rates.size());
+        assertEquals(BigDecimal.ONE.divide(new BigDecimal("45000"), MATH_CONTEXT), rates.get(fiatToCrypto));
+        assertEquals(0, new BigDecimal("18").compareTo(rates.get(cryptoToCrypto)));
+        verify(rateSnapshotService).getSnapshot();
+    }
+
+    private void givenSnapshot(Instant fetchedAt) {
+        when(rateSnapshotService.getSnapshot()).thenReturn(RateSnapshot.builder()
+            .version(1)
+            .fetchedAt(fetchedAt)
+            .matrix(MATRIX)
+            .build());
+    }
+
+    private static RateMatrix matrix() {
+        final RateMatrix.Builder builder = RateMatrix.builder(RateMatrix.Layout.of(List.of("BTC", "ETH", "LTC"), List.of("USD", "EUR")));
+        builder.set("BTC", "USD", new BigDecimal("50000"));
+        builder.set("BTC", "EUR", new BigDecimal("45000"));
+        builder.set("ETH", "USD", new BigDecimal("3000"));
+        builder.set("ETH", "EUR", new BigDecimal("2500"));
+        builder.set("LTC", "USD", new BigDecimal("150"));
+        return builder.build();
+    }
+
+}
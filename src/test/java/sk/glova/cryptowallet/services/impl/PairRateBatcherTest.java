@@ -0,0 +1,80 @@
+package sk.glova.cryptowallet.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import sk.glova.cryptowallet.services.api.CurrencyService;
+import sk.glova.cryptowallet.services.api.RateProvider;
+import sk.glova.cryptowallet.utils.CircuitBreaker;
+
+/**
+ * Runs against the simulated market with frozen prices, so that batched and single pair rates are comparable.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "rates.simulated.volatility=0")
+class PairRateBatcherTest {
+
+    // one USDT is worth 0.000333... ETH, the fixed-point matrix would keep only its first 8 decimal places (5 significant digits)
+    private static final String LOW_VALUE_CRYPTO = "USDT";
+    private static final String HIGH_VALUE_CRYPTO = "ETH";
+    private static final BigDecimal TOLERANCE = new BigDecimal("1e-10");
+
+    private final PairRateBatcher pairRateBatcher;
+    private final RateProvider rateProvider;
+    private final RateFetchPlanner rateFetchPlanner;
+    private final CurrencyService currencyService;
+    private final CircuitBreaker circuitBreaker;
+
+    PairRateBatcherTest(@Autowired PairRateBatcher pairRateBatcher, @Autowired RateProvider rateProvider,
+        @Autowired RateFetchPlanner rateFetchPlanner, @Autowired CurrencyService currencyService, @Autowired CircuitBreaker circuitBreaker) {
+        this.pairRateBatcher = pairRateBatcher;
+        this.rateProvider = rateProvider;
+        this.rateFetchPlanner = rateFetchPlanner;
+        this.currencyService = currencyService;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Test
+    void givenLowValueCryptoPair_whenBatched_thenRateKeepsSignificantDigits() throws Exception {
+        final BigDecimal rate = pairRateBatcher.submit(LOW_VALUE_CRYPTO, HIGH_VALUE_CRYPTO).get(5, TimeUnit.SECONDS);
+        final BigDecimal expected = rateProvider.getRate(LOW_VALUE_CRYPTO, HIGH_VALUE_CRYPTO);
+
+        final BigDecimal relativeError = rate.subtract(expected).abs().divide(expected, MathContext.DECIMAL64);
+        assertTrue(relativeError.compareTo(TOLERANCE) < 0, "rate " + rate + " differs from single pair rate " + expected);
+    }
+
+    @Test
+    void givenHighValueCryptoPair_whenBatched_thenRateKeepsSignificantDigits() throws Exception {
+        final BigDecimal rate = pairRateBatcher.submit(HIGH_VALUE_CRYPTO, LOW_VALUE_CRYPTO).get(5, TimeUnit.SECONDS);
+        final BigDecimal expected = rateProvider.getRate(HIGH_VALUE_CRYPTO, LOW_VALUE_CRYPTO);
+
+        final BigDecimal relativeError = rate.subtract(expected).abs().divide(expected, MathContext.DECIMAL64);
+        assertTrue(relativeError.compareTo(TOLERANCE) < 0, "rate " + rate + " differs from single pair rate " + expected);
+    }
+
+    @Test
+    void givenPendingLookups_whenShutdown_thenLookupsFail() {
+        // long window keeps the lookups in the batch being collected (or still in the queue)
+        final PairRateBatcher batcher = new PairRateBatcher(rateFetchPlanner, rateProvider, currencyService, circuitBreaker, new SimpleMeterRegistry(),
+            60000, 10, 1, 12);
+        final CompletableFuture<BigDecimal> first = batcher.submit(LOW_VALUE_CRYPTO, HIGH_VALUE_CRYPTO);
+        final CompletableFuture<BigDecimal> second = batcher.submit(HIGH_VALUE_CRYPTO, LOW_VALUE_CRYPTO);
+
+        batcher.shutdown();
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> batcher.submit(LOW_VALUE_CRYPTO, HIGH_VALUE_CRYPTO).get(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,246 @@
+package sk.glova.cryptowallet.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import sk.glova.cryptowallet.domain.model.RateMatrix;
+import sk.glova.cryptowallet.services.api.RateProvider;
+
+/**
+ * Chunking and merging of the rate matrix against a fake provider, whose rate of every cell encodes the cell, so a chunk merged at wrong
+ * offsets is visible in the merged matrix. Triangulated mode runs against fixed rates.
+ */
+class RateFetchPlannerTest {
+
+    // "C00,C01,C02" is exactly 11 characters, the fourth code does not fit anymore
+    private static final int MAX_CRYPTO_CODES_LENGTH = 11;
+    // "F0,F1" is exactly 5 characters
+    private static final int MAX_FIAT_CODES_LENGTH = 5;
+
+    private static final List<String> CRYPTOS = codes("C%02d", 10);
+    private static final List<String> FIATS = codes("F%d", 4);
+    private static final RateMatrix.Layout LAYOUT = RateMatrix.Layout.of(CRYPTOS, FIATS);
+
+    // BTC x EUR = 50000.12345678 * 0.91234567 = 45617.3961352586651426
+    private static final RateMatrix.Layout TRIANGULATED_LAYOUT = RateMatrix.Layout.of(List.of("BTC", "ETH"), List.of("EUR", "USD", "GBP"));
+
+    private final FakeRateProvider rateProvider = new FakeRateProvider();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateFetchPlanner planner = new RateFetchPlanner(rateProvider, meterRegistry, MAX_CRYPTO_CODES_LENGTH, MAX_FIAT_CODES_LENGTH, 4,
+        RateFetchPlanner.Mode.FULL, "F0", 16);
+    private final RateFetchPlanner triangulatedPlanner = triangulatedPlanner(16);
+
+    @AfterEach
+    void tearDown() {
+        planner.shutdown();
+        triangulatedPlanner.shutdown();
+    }
+
+    @Test
+    void givenLayoutWithinLimits_whenFetch_thenFetchedByOneCall() {
+        final RateMatrix.Layout layout = RateMatrix.Layout.of(CRYPTOS.subList(0, 3), FIATS.subList(0, 2));
+
+        final RateMatrix matrix = planner.fetch(layout);
+
+        assertEquals(List.of(layout), new ArrayList<>(rateProvider.requested));
+        assertRates(matrix, crypto -> true);
+    }
+
+    @Test
+    void givenLayoutOverLimits_whenFetch_thenSplitIntoConsecutiveChunksFillingLimits() {
+        planner.fetch(LAYOUT);
+
+        final List<List<String>> cryptoChunks = rateProvider.requested.stream().map(RateMatrix.Layout::getCryptoCodes).distinct()
+            .sorted((a, b) -> a.get(0).compareTo(b.get(0))).collect(Collectors.toList());
+        final List<List<String>> fiatChunks = rateProvider.requested.stream().map(layout -> List.copyOf(layout.getFiatCodes())).distinct()
+            .sorted((a, b) -> a.get(0).compareTo(b.get(0))).collect(Collectors.toList());
+
+        // every crypto chunk x every fiat chunk
+        assertEquals(8, rateProvider.requested.size());
+        assertEquals(List.of(CRYPTOS.subList(0, 3), CRYPTOS.subList(3, 6), CRYPTOS.subList(6, 9), CRYPTOS.subList(9, 10)), cryptoChunks);
+        assertEquals(List.of(FIATS.subList(0, 2), FIATS.subList(2, 4)), fiatChunks);
+    }
+
+    @Test
+    void givenCodeLongerThanLimit_whenFetch_thenCodeFetchedInOwnChunk() {
+        final RateMatrix.Layout layout = RateMatrix.Layout.of(List.of("C00", "LONGERTHANLIMIT", "C01"), FIATS.subList(0, 1));
+
+        final RateMatrix matrix = planner.fetch(layout);
+
+        assertEquals(3, rateProvider.requested.size());
+        assertEquals(0, rateProvider.rate("LONGERTHANLIMIT", "F0").compareTo(matrix.get("LONGERTHANLIMIT", "F0")));
+    }
+
+    @Test
+    void givenLayoutOverLimits_whenFetch_thenChunksMergedAtTheirOffsets() {
+        final RateMatrix matrix = planner.fetch(LAYOUT);
+
+        assertSame(LAYOUT, matrix.getLayout());
+        assertRates(matrix, crypto -> true);
+        assertEquals(8, meterRegistry.counter("rates.fetch.chunks", "result", "success").count());
+    }
+
+    @Test
+    void givenSomeChunksFail_whenFetch_thenOnlyTheirRatesMissing() {
+        // the second crypto chunk (C03 - C05) fails against both fiat chunks
+        rateProvider.failing = layout -> layout.getCryptoCodes().contains("C04");
+
+        final RateMatrix matrix = planner.fetch(LAYOUT);
+
+        final Predicate<String> fetched = crypto -> !CRYPTOS.subList(3, 6).contains(crypto);
+        assertRates(matrix, fetched);
+        for (int crypto = 3; crypto < 6; crypto++) {
+            assertFalse(matrix.hasRow(crypto));
+            for (int fiat = 0; fiat < FIATS.size(); fiat++) {
+                assertNull(matrix.get(crypto, fiat));
+            }
+        }
+        assertEquals(6, meterRegistry.counter("rates.fetch.chunks", "result", "success").count());
+        assertEquals(2, meterRegistry.counter("rates.fetch.chunks", "result", "failure").count());
+    }
+
+    @Test
+    void givenAllChunksFail_whenFetch_thenFailureThrown() {
+        rateProvider.failing = layout -> true;
+
+        final ResourceAccessException ex = assertThrows(ResourceAccessException.class, () -> planner.fetch(LAYOUT));
+
+        assertEquals("External API is down.", ex.getMessage());
+        assertEquals(8, meterRegistry.counter("rates.fetch.chunks", "result", "failure").count());
+    }
+
+    @Test
+    void givenTriangulatedMode_whenFetch_thenRatesMultipliedThroughBaseFiat() {
+        givenTriangulatedRates();
+
+        final RateMatrix matrix = triangulatedPlanner.fetch(TRIANGULATED_LAYOUT);
+
+        // cryptos x base fiat plus base fiat x fiats, N + M rates instead of N x M
+        assertEquals(2, rateProvider.requested.size());
+        assertEquals(new BigDecimal("50000.12345678"), matrix.get("BTC", "USD"));
+        // 16 significant digits are 45617.39613525867, rounded half up to the 8 decimal places of the matrix
+        assertEquals(new BigDecimal("45617.39613526"), matrix.get("BTC", "EUR"));
+        assertEquals(new BigDecimal("40000.09876542"), matrix.get("BTC", "GBP"));
+        assertEquals(new BigDecimal("2737.03701000"), matrix.get("ETH", "EUR"));
+        assertEquals(new BigDecimal("3000.00000000"), matrix.get("ETH", "USD"));
+        assertEquals(new BigDecimal("2400.00000000"), matrix.get("ETH", "GBP"));
+    }
+
+    @Test
+    void givenTriangulatedModeWithLowPrecision_whenFetch_thenProductRoundedToPrecision() {
+        givenTriangulatedRates();
+        final RateFetchPlanner lowPrecisionPlanner = triangulatedPlanner(12);
+
+        try {
+            // 12 significant digits are 45617.3961353, the rest of the 8 decimal places is lost
+            assertEquals(new BigDecimal("45617.39613530"), lowPrecisionPlanner.fetch(TRIANGULATED_LAYOUT).get("BTC", "EUR"));
+        } finally {
+            lowPrecisionPlanner.shutdown();
+        }
+    }
+
+    @Test
+    void givenTriangulatedModeAndFiatTableFails_whenFetch_thenOnlyBaseFiatRatesFilled() {
+        givenTriangulatedRates();
+        rateProvider.failing = layout -> layout.getCryptoCodes().equals(List.of("USD"));
+
+        final RateMatrix matrix = triangulatedPlanner.fetch(TRIANGULATED_LAYOUT);
+
+        assertEquals(new BigDecimal("50000.12345678"), matrix.get("BTC", "USD"));
+        assertEquals(new BigDecimal("3000.00000000"), matrix.get("ETH", "USD"));
+        assertNull(matrix.get("BTC", "EUR"));
+        assertNull(matrix.get("ETH", "GBP"));
+    }
+
+    @Test
+    void givenTriangulatedModeAndCryptoTableFails_whenFetch_thenFailureThrown() {
+        givenTriangulatedRates();
+        rateProvider.failing = layout -> layout.getCryptoCodes().contains("BTC");
+
+        assertThrows(ResourceAccessException.class, () -> triangulatedPlanner.fetch(TRIANGULATED_LAYOUT));
+    }
+
+    private void givenTriangulatedRates() {
+        rateProvider.fixedRates.put("BTC x USD", new BigDecimal("50000.12345678"));
+        rateProvider.fixedRates.put("ETH x USD", new BigDecimal("3000"));
+        rateProvider.fixedRates.put("USD x USD", BigDecimal.ONE);
+        rateProvider.fixedRates.put("USD x EUR", new BigDecimal("0.91234567"));
+        rateProvider.fixedRates.put("USD x GBP", new BigDecimal("0.8"));
+    }
+
+    private RateFetchPlanner triangulatedPlanner(int precision) {
+        // limits of cryptocompare, both tables are fetched by one call
+        return new RateFetchPlanner(rateProvider, meterRegistry, 300, 100, 4, RateFetchPlanner.Mode.TRIANGULATED, "USD", precision);
+    }
+
+    private void assertRates(RateMatrix matrix, Predicate<String> fetched) {
+        for (int crypto = 0; crypto < matrix.getCryptoCount(); crypto++) {
+            if (!fetched.test(matrix.getCrypto(crypto))) {
+                continue;
+            }
+            assertTrue(matrix.hasRow(crypto));
+            for (int fiat = 0; fiat < matrix.getFiatCount(); fiat++) {
+                final BigDecimal expected = rateProvider.rate(matrix.getCrypto(crypto), matrix.getFiat(fiat));
+                assertEquals(0, expected.compareTo(matrix.get(crypto, fiat)), matrix.getCrypto(crypto) + " x " + matrix.getFiat(fiat));
+            }
+        }
+    }
+
+    private static List<String> codes(String format, int count) {
+        return IntStream.range(0, count).mapToObj(i -> String.format(format, i)).collect(Collectors.toList());
+    }
+
+    private static class FakeRateProvider implements RateProvider {
+
+        private final Queue<RateMatrix.Layout> requested = new ConcurrentLinkedQueue<>();
+        private final Map<String, BigDecimal> fixedRates = new ConcurrentHashMap<>();
+        private volatile Predicate<RateMatrix.Layout> failing = layout -> false;
+
+        @Override
+        public RateMatrix getRates(RateMatrix.Layout layout) {
+            requested.add(layout);
+            if (failing.test(layout)) {
+                throw new ResourceAccessException("External API is down.");
+            }
+
+            final RateMatrix.Builder builder = RateMatrix.builder(layout);
+            for (String crypto : layout.getCryptoCodes()) {
+                for (String fiat : layout.getFiatCodes()) {
+                    builder.set(crypto, fiat, rate(crypto, fiat));
+                }
+            }
+            return builder.build();
+        }
+
+        @Override
+        public BigDecimal getRate(String currencyFrom, String currencyTo) {
+            return rate(currencyFrom, currencyTo);
+        }
+
+        // unique for every cell of the test layouts
+        BigDecimal rate(String crypto, String fiat) {
+            final BigDecimal fixedRate = fixedRates.get(crypto + " x " + fiat);
+            return fixedRate != null ? fixedRate : BigDecimal.valueOf(crypto.hashCode()).add(BigDecimal.valueOf(fiat.hashCode(), 4));
+        }
+
+    }
+
+}